@@ -1,5 +1,6 @@
 package com.agrotech;
 
+import com.agrotech.service.DataTransformationService;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
@@ -61,6 +62,7 @@ public class Main extends Application {
     private void cleanup() {
         try {
             System.out.println("Realizando limpieza antes de cerrar...");
+            DataTransformationService.getInstance().clear();
         } catch (Exception e) {
             System.err.println("Error durante la limpieza: " + e.getMessage());
         }
@@ -6,15 +6,18 @@ import com.agrotech.model.MeasurementData;
 import com.agrotech.model.SensorDataEnriched;
 import com.agrotech.model.ValidationResult;
 import com.agrotech.service.DataTransformationService;
+import javafx.animation.PauseTransition;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.scene.shape.Circle;
+import javafx.util.Duration;
 
 import java.util.HashMap;
 import java.util.Map;
 
 public class DashboardController {
+    private static final Duration SLIDER_DEBOUNCE = Duration.millis(400);
 
     @FXML private BorderPane mainContainer;
     @FXML private Label dateLabel;
@@ -22,6 +25,8 @@ public class DashboardController {
     @FXML private Circle statusIndicator;
     @FXML private Label systemStatusLabel;
     @FXML private Label lastUpdateLabel;
+    @FXML private ToggleButton followToggle;
+    @FXML private ToggleButton liveToggle;
     @FXML private TextField tempInput;
     @FXML private ComboBox<String> tempUnitCombo;
     @FXML private TextField volInput;
@@ -44,12 +49,26 @@ public class DashboardController {
     @FXML private Button sqlButton;
     @FXML private Button nosqlButton;
     @FXML private Button jsonButton;
+    @FXML private Pane chartPane;
+    @FXML private ComboBox<String> chartChannelCombo;
+    @FXML private ComboBox<String> chartModeCombo;
+    @FXML private TableView<Integer> readingsTable;
+    @FXML private ComboBox<String> readingsFilterCombo;
+    @FXML private TextField readingsMinInput;
+    @FXML private TextField readingsMaxInput;
+    @FXML private CheckBox irrigationOnlyCheck;
+    @FXML private Label readingsCountLabel;
 
     private TemperatureHandler temperatureHandler;
     private ExportHandler exportHandler;
     private DateTimeHandler dateTimeHandler;
     private MeasurementHandler measurementHandler;
     private ValidationHandler validationHandler;
+    private FileFollowHandler fileFollowHandler;
+    private LiveSourceHandler liveSourceHandler;
+    private SystemStatusHandler systemStatusHandler;
+    private SensorChartHandler sensorChartHandler;
+    private ReadingsTableHandler readingsTableHandler;
 
 
     @FXML
@@ -70,7 +89,8 @@ public class DashboardController {
     }
 
     public void initializeWithData() {
-        SensorDataEnriched latestData = DataTransformationService.getInstance().getLatestReading();
+        DataTransformationService transformationService = DataTransformationService.getInstance();
+        SensorDataEnriched latestData = transformationService.getLatestReading();
         if (latestData == null) {
             showAlert();
             return;
@@ -82,13 +102,26 @@ public class DashboardController {
                 cropTypeCombo.setValue(latestData.cropType());
             }
             updateSystemStatus();
-            System.out.println("Dashboard inicializado con datos del sensor");
+            sensorChartHandler.refresh();
+            readingsTableHandler.refresh();
+            System.out.printf("Dashboard inicializado con %d lecturas del sensor%n",
+                    transformationService.getSensorData().size());
         } catch (Exception e) {
             System.err.println("Error al inicializar dashboard con datos: " + e.getMessage());
             showAlert();
         }
     }
 
+    private void refreshLatestReading() {
+        SensorDataEnriched latestData = DataTransformationService.getInstance().getLatestReading();
+        if (latestData != null) {
+            dateTimeHandler.updateLastUpdateTime(latestData.timestamp());
+            updateSystemStatus();
+            sensorChartHandler.refresh();
+            readingsTableHandler.refresh();
+        }
+    }
+
     private void setupTooltips() {
         // Tooltips para campos de temperatura
         tempInput.setTooltip(new Tooltip("Ingrese la temperatura del agua"));
@@ -136,6 +169,17 @@ public class DashboardController {
 
             dateTimeHandler = new DateTimeHandler(dateLabel, lastUpdateLabel);
 
+            fileFollowHandler = new FileFollowHandler(followToggle);
+            fileFollowHandler.setOnDataAppended(this::refreshLatestReading);
+
+            systemStatusHandler = new SystemStatusHandler(statusIndicator, systemStatusLabel);
+            sensorChartHandler = new SensorChartHandler(chartPane, chartChannelCombo, chartModeCombo);
+            readingsTableHandler = new ReadingsTableHandler(readingsTable, readingsFilterCombo,
+                    readingsMinInput, readingsMaxInput, irrigationOnlyCheck, readingsCountLabel);
+
+            liveSourceHandler = new LiveSourceHandler(liveToggle);
+            liveSourceHandler.setOnDataAppended(this::refreshLatestReading);
+
             measurementHandler.setOnVolumeUpdated(data -> {
                 dateTimeHandler.updateLastUpdateTime();
                 updateSliderLabel(approximateVolSlider.getValue());
@@ -177,9 +221,30 @@ public class DashboardController {
         approximateVolSlider.valueProperty().addListener(
                 (obs, old, newVal) -> updateSliderLabel(newVal.doubleValue())
         );
+        // El nivel elegido queda asociado a la lectura más reciente. Teclado y clics en la pista cambian el valor
+        // sin arrastre, así que se escucha el valor y se guarda cuando deja de cambiar
+        PauseTransition levelDebounce = new PauseTransition(SLIDER_DEBOUNCE);
+        levelDebounce.setOnFinished(e -> {
+            if (!approximateVolSlider.isValueChanging()) {
+                recordIrrigationLevel(approximateVolSlider.getValue());
+            }
+        });
+        approximateVolSlider.valueProperty().addListener((obs, old, newVal) -> levelDebounce.playFromStart());
+        approximateVolSlider.valueChangingProperty().addListener((obs, wasChanging, changing) -> {
+            if (!changing) {
+                levelDebounce.playFromStart();
+            }
+        });
         updateSliderLabel(50);
     }
 
+    private void recordIrrigationLevel(double level) {
+        SensorDataEnriched latestData = DataTransformationService.getInstance().getLatestReading();
+        // Al cargar el dashboard el slider toma el nivel ya guardado; no hace falta volver a registrarlo
+        if (latestData != null && latestData.irrigationLevel() != level) {
+            DataTransformationService.getInstance().setIrrigationLevel(latestData.timestamp(), level);
+        }
+    }
 
     private void setupExportButtons() {
         sqlButton.setOnAction(e -> {
@@ -253,9 +318,7 @@ public class DashboardController {
     }
 
     private void updateSystemStatus() {
-        statusIndicator.getStyleClass().removeAll("warning", "error");
-        statusIndicator.getStyleClass().add("success");
-        systemStatusLabel.setText("Sistema Operativo");
+        systemStatusHandler.update();
     }
 
     private void updateSliderLabel(double value) {
@@ -267,6 +330,10 @@ public class DashboardController {
 
     private void onCropTypeChanged() {
         if (cropTypeCombo.getValue() != null) {
+            SensorDataEnriched latestData = DataTransformationService.getInstance().getLatestReading();
+            if (latestData != null) {
+                DataTransformationService.getInstance().setCropType(latestData.timestamp(), cropTypeCombo.getValue());
+            }
             updateSystemStatus();
         }
     }
@@ -3,12 +3,25 @@ package com.agrotech.controller;
 import com.agrotech.exception.CSVProcessingException;
 import com.agrotech.exception.FileValidationException;
 
+import com.agrotech.model.CompressedSensorColumns;
+import com.agrotech.model.FollowPosition;
+import com.agrotech.model.IngestProgress;
+import com.agrotech.model.SensorColumns;
+import com.agrotech.model.SensorDataset;
+import com.agrotech.model.SensorFileFormat;
+import com.agrotech.model.SensorStore;
+import com.agrotech.model.SourceFingerprint;
+import com.agrotech.model.StorageMode;
 import com.agrotech.model.UploadState;
 import com.agrotech.service.CSVProcessingService;
 import com.agrotech.service.DataTransformationService;
 import com.agrotech.service.FileValidationService;
+import com.agrotech.service.IngestPipeline;
+import com.agrotech.service.MultiFileIngestService;
 
 import com.agrotech.service.NavigationService;
+import com.agrotech.service.ProgressReporter;
+import com.agrotech.service.SensorSnapshotService;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.input.TransferMode;
@@ -17,6 +30,8 @@ import javafx.application.Platform;
 import javafx.stage.Stage;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.List;
 
 public class WelcomeController {
     @FXML private VBox dropZone;
@@ -25,10 +40,16 @@ public class WelcomeController {
 
     private final FileValidationService validationService;
     private final CSVProcessingService processingService;
+    private final MultiFileIngestService multiFileIngestService;
+    private final SensorSnapshotService snapshotService;
+    private final IngestPipeline ingestPipeline;
 
     public WelcomeController() {
         this.validationService = new FileValidationService();
         this.processingService = new CSVProcessingService();
+        this.multiFileIngestService = new MultiFileIngestService();
+        this.snapshotService = new SensorSnapshotService();
+        this.ingestPipeline = new IngestPipeline();
     }
 
     @FXML
@@ -51,7 +72,7 @@ public class WelcomeController {
             boolean success = false;
 
             if (db.hasFiles() && !db.getFiles().isEmpty()) {
-                handleFileSelection(db.getFiles().getFirst());
+                handleFileSelection(db.getFiles());
                 success = true;
             }
 
@@ -66,6 +87,14 @@ public class WelcomeController {
     }
 
 
+    private void handleFileSelection(List<File> selection) {
+        if (selection.size() > 1 || selection.getFirst().isDirectory()) {
+            processFiles(multiFileIngestService.expandFiles(selection));
+            return;
+        }
+        handleFileSelection(selection.getFirst());
+    }
+
     private void handleFileSelection(File file) {
         try {
             if (!validationService.validateFile(file)) {
@@ -84,36 +113,62 @@ public class WelcomeController {
         updateState(UploadState.PROCESSING);
 
         Thread processThread = new Thread(() -> {
-            try {
-                boolean success = processingService.processCSVFile(file, progress ->
-                        Platform.runLater(() -> progressBar.setProgress(progress))
-                );
+            DataTransformationService transformationService = DataTransformationService.getInstance();
+            try (ProgressReporter progress = ProgressReporter.start(file.length(), this::showProgress)) {
+                // Se toma antes de parsear: la carga lee hasta ese tamaño y el snapshot queda asociado a ese estado
+                SourceFingerprint fingerprint = snapshotService.fingerprint(file);
+                // Si el archivo no cambió desde la última carga se mapea su snapshot en lugar de parsearlo
+                SensorStore snapshot = snapshotService.load(file, fingerprint);
+                if (snapshot != null) {
+                    transformationService.replaceStore(snapshot, snapshot instanceof CompressedSensorColumns
+                            ? StorageMode.COMPRESSED : StorageMode.SNAPSHOT);
+                    transformationService.setSourceFile(file,
+                            processingService.followPosition(file, fingerprint.size()));
+                    Platform.runLater(() -> onProcessingFinished(true));
+                    return;
+                }
 
-                Platform.runLater(() -> {
+                // Para archivos comprimidos se estima el tamaño descomprimido
+                long estimatedSize = SensorFileFormat.of(file).estimateUncompressedSize(fingerprint.size());
+                StorageMode storageMode = StorageMode.forFileSize(estimatedSize);
+                transformationService.clear(storageMode);
+
+                boolean success;
+                FollowPosition followPosition;
+                if (storageMode == StorageMode.HEAP) {
+                    success = processingService.processCSVFile(file, fingerprint.size(), progress);
                     if (success) {
-                        try {
-                            // Enriquecer los datos
-                            DataTransformationService.getInstance()
-                                    .enrichSensorData(processingService.getProcessedData());
-
-                            // Navegar al dashboard
-                            Stage stage = (Stage) dropZone.getScene().getWindow();
-                            NavigationService.getInstance().navigateToDashboard(stage);
-                        } catch (Exception e) {
-                            updateState(UploadState.ERROR);
-                            showError("Error al cambiar de vista: " + e.getMessage());
-                        }
-                    } else {
-                        updateState(UploadState.ERROR);
-                        showError("Error al procesar el archivo");
+                        // Se parsea en paralelo fuera del pipeline, pero pasa por la misma validación
+                        SensorColumns parsed = processingService.getProcessedColumns();
+                        transformationService.addColumns(IngestPipeline.validate(parsed));
                     }
-                });
+                    followPosition = processingService.getFollowPosition();
+                } else {
+                    // Datasets mayores que el heap pasan por el pipeline por etapas y se escriben directo al
+                    // almacén externo; el almacén marca el ritmo de la lectura
+                    ingestPipeline.run(file, fingerprint.size(), transformationService::addReading, progress);
+                    transformationService.finishIngest();
+                    followPosition = ingestPipeline.getFollowPosition();
+                    success = true;
+                }
+                if (success) {
+                    // Lo que se ingirió comprimido también se guarda comprimido
+                    saveSnapshot(file, fingerprint, transformationService.getSensorData(),
+                            transformationService.getStorageMode() == StorageMode.COMPRESSED);
+                    transformationService.setSourceFile(file, followPosition);
+                }
+                Platform.runLater(() -> onProcessingFinished(success));
 
             } catch (CSVProcessingException e) {
-                Platform.runLater(() -> {
-                    updateState(UploadState.ERROR);
-                    showError(e.getMessage());
-                });
+                transformationService.clear();
+                Platform.runLater(() -> onProcessingFailed(e.getMessage()));
+            } catch (IOException e) {
+                transformationService.clear();
+                Platform.runLater(() -> onProcessingFailed("Error al leer el archivo: " + e.getMessage()));
+            } catch (RuntimeException e) {
+                // Fallas de los almacenes mapeados, fuera del heap o comprimidos: la UI no queda en PROCESSING
+                transformationService.clear();
+                Platform.runLater(() -> onProcessingFailed("Error al procesar el archivo: " + e.getMessage()));
             }
         });
 
@@ -121,6 +176,95 @@ public class WelcomeController {
         processThread.start();
     }
 
+    private void saveSnapshot(File file, SourceFingerprint fingerprint, SensorDataset data, boolean compressed) {
+        Platform.runLater(() -> statusLabel.setText("Guardando snapshot..."));
+        try {
+            snapshotService.save(file, fingerprint, data, compressed);
+        } catch (IOException e) {
+            // Sin snapshot la próxima carga vuelve a parsear el archivo; no impide usar los datos
+            System.err.println("No se pudo guardar el snapshot: " + e.getMessage());
+        }
+    }
+
+    // Varios archivos o carpetas: se cargan en paralelo y se mezclan por timestamp
+    private void processFiles(List<File> files) {
+        updateState(UploadState.PROCESSING);
+
+        Thread processThread = new Thread(() -> {
+            DataTransformationService transformationService = DataTransformationService.getInstance();
+            long totalSize = multiFileIngestService.totalSize(files);
+            try (ProgressReporter progress = ProgressReporter.start(totalSize, this::showProgress)) {
+                // El modo sale del tamaño total descomprimido; fuera del heap los fragmentos también se parsean a
+                // archivos mapeados
+                StorageMode storageMode = StorageMode.forFileSize(
+                        multiFileIngestService.estimatedUncompressedSize(files));
+                transformationService.clear(storageMode);
+                boolean compressed = storageMode == StorageMode.COMPRESSED;
+                FollowPosition followPosition;
+                if (storageMode == StorageMode.HEAP) {
+                    SensorColumns merged = new SensorColumns();
+                    followPosition = multiFileIngestService.ingest(files, SensorColumns::new, compressed, merged,
+                            progress);
+                    transformationService.addColumns(merged);
+                } else {
+                    followPosition = multiFileIngestService.ingest(files,
+                            () -> transformationService.createStore(StorageMode.FILE_BACKED), compressed,
+                            transformationService::addReading, progress);
+                    transformationService.finishIngest();
+                }
+                // Cada archivo guarda su propio snapshot; se sigue el último, que es el que el logger sigue
+                // escribiendo
+                transformationService.setSourceFile(files.get(files.size() - 1), followPosition);
+                Platform.runLater(() -> onProcessingFinished(true));
+            } catch (FileValidationException | CSVProcessingException e) {
+                transformationService.clear();
+                Platform.runLater(() -> onProcessingFailed(e.getMessage()));
+            } catch (RuntimeException e) {
+                transformationService.clear();
+                Platform.runLater(() -> onProcessingFailed("Error al procesar el archivo: " + e.getMessage()));
+            }
+        });
+
+        processThread.setDaemon(true);
+        processThread.start();
+    }
+
+    private void onProcessingFinished(boolean success) {
+        if (success) {
+            try {
+                // Navegar al dashboard
+                Stage stage = (Stage) dropZone.getScene().getWindow();
+                NavigationService.getInstance().navigateToDashboard(stage);
+            } catch (Exception e) {
+                updateState(UploadState.ERROR);
+                showError("Error al cambiar de vista: " + e.getMessage());
+            }
+        } else {
+            updateState(UploadState.ERROR);
+            showError("Error al procesar el archivo");
+        }
+    }
+
+    private void onProcessingFailed(String message) {
+        updateState(UploadState.ERROR);
+        showError(message);
+    }
+
+    // Llega desde el hilo de muestreo a frecuencia acotada; solo se encola un runLater por muestra
+    private void showProgress(IngestProgress progress) {
+        String message = String.format("Procesando archivo... %,d filas (%,.0f filas/s, %.1f MB/s)",
+                progress.rowsProcessed(), progress.rowsPerSecond(), progress.bytesPerSecond() / (1024 * 1024));
+        if (progress.hasEstimate()) {
+            message += String.format(" - %d s restantes", progress.estimatedRemaining().toSeconds());
+        }
+
+        String statusMessage = message;
+        Platform.runLater(() -> {
+            progressBar.setProgress(progress.fraction());
+            statusLabel.setText(statusMessage);
+        });
+    }
+
     private void showError(String message) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle("Error");
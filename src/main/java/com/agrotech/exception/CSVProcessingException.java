@@ -1,7 +1,30 @@
 package com.agrotech.exception;
 
 public class CSVProcessingException extends Exception {
+    private final long lineNumber;
+    private final String detail;
+
     public CSVProcessingException(String message) {
         super(message);
+        this.lineNumber = -1;
+        this.detail = message;
+    }
+
+    public CSVProcessingException(long lineNumber, String detail) {
+        super("Error en línea " + lineNumber + ": " + detail);
+        this.lineNumber = lineNumber;
+        this.detail = detail;
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    // Los fragmentos se parsean con numeración local; al unirlos se desplaza a la línea real del archivo
+    public CSVProcessingException withLineOffset(long offset) {
+        if (lineNumber < 0 || offset == 0) {
+            return this;
+        }
+        return new CSVProcessingException(lineNumber + offset, detail);
     }
 }
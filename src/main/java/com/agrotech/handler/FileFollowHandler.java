@@ -0,0 +1,96 @@
+package com.agrotech.handler;
+
+import com.agrotech.exception.CSVProcessingException;
+import com.agrotech.model.FollowPosition;
+import com.agrotech.model.SensorColumns;
+import com.agrotech.service.CSVTailService;
+import com.agrotech.service.DataTransformationService;
+import javafx.application.Platform;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ToggleButton;
+import javafx.scene.control.Tooltip;
+
+import java.io.File;
+import java.io.IOException;
+
+public final class FileFollowHandler {
+    private final DataTransformationService transformationService;
+    private final ToggleButton followToggle;
+    private CSVTailService tailService;
+    private Runnable onDataAppended;
+
+    public FileFollowHandler(ToggleButton followToggle) {
+        this.transformationService = DataTransformationService.getInstance();
+        this.followToggle = followToggle;
+        setupControls();
+    }
+
+    private void setupControls() {
+        // Solo se puede seguir un CSV plano; los comprimidos no crecen por agregado de líneas y no tienen posición
+        followToggle.setDisable(transformationService.getSourceFile() == null
+                || transformationService.getFollowPosition() == null);
+        followToggle.setTooltip(new Tooltip("Cargar las lecturas que el logger agregue al archivo"));
+        followToggle.selectedProperty().addListener((obs, old, selected) -> {
+            if (selected) {
+                startFollowing();
+            } else {
+                stopFollowing();
+            }
+        });
+    }
+
+    public void setOnDataAppended(Runnable onDataAppended) {
+        this.onDataAppended = onDataAppended;
+    }
+
+    private void startFollowing() {
+        File file = transformationService.getSourceFile();
+        FollowPosition position = transformationService.getFollowPosition();
+        try {
+            tailService = new CSVTailService(file, position);
+            CSVTailService tail = tailService;
+            tailService.start(
+                    appended -> append(tail, appended),
+                    error -> Platform.runLater(() -> {
+                        followToggle.setSelected(false);
+                        showAlert("Se detuvo el seguimiento: " + error.getMessage());
+                    })
+            );
+        } catch (CSVProcessingException | IOException e) {
+            stopFollowing();
+            followToggle.setSelected(false);
+            showAlert("No se pudo seguir el archivo: " + e.getMessage());
+        }
+    }
+
+    // Corre en el hilo del seguimiento: reescribir el almacén o publicar una versión no bloquea la UI
+    private void append(CSVTailService tail, SensorColumns appended) {
+        // La línea final que la carga tomó a medio escribir llega ahora completa: se reemplaza la lectura truncada
+        long partialEpochSecond = tail.takePartialEpochSecond();
+        if (partialEpochSecond != Long.MIN_VALUE) {
+            transformationService.removeReading(partialEpochSecond);
+        }
+        transformationService.addColumns(appended);
+        transformationService.setFollowPosition(tail.getPosition());
+        Platform.runLater(() -> {
+            if (onDataAppended != null) {
+                onDataAppended.run();
+            }
+        });
+    }
+
+    public void stopFollowing() {
+        if (tailService != null) {
+            tailService.close();
+            tailService = null;
+        }
+    }
+
+    private void showAlert(String content) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Error");
+        alert.setHeaderText(null);
+        alert.setContentText(content);
+        alert.showAndWait();
+    }
+}
@@ -0,0 +1,176 @@
+package com.agrotech.handler;
+
+import com.agrotech.service.DataTransformationService;
+import com.agrotech.service.FileReplaySource;
+import com.agrotech.service.LiveSensorService;
+import com.agrotech.service.NamedPipeSensorSource;
+import com.agrotech.service.SensorSource;
+import com.agrotech.service.SocketSensorSource;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ChoiceDialog;
+import javafx.scene.control.TextInputDialog;
+import javafx.scene.control.ToggleButton;
+import javafx.scene.control.Tooltip;
+import javafx.stage.FileChooser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+public final class LiveSourceHandler {
+    private static final String SOCKET_OPTION = "Puerto TCP local";
+    private static final String PIPE_OPTION = "Named pipe";
+    private static final String REPLAY_OPTION = "Reproducir archivo CSV";
+    private static final String DEFAULT_PORT = "5555";
+    private static final double REPLAY_SPEED = 60;
+    // Las lecturas se vacían en cada pulso pero se publican a lo sumo 4 veces por segundo: cada publicación arma
+    // una versión nueva y refresca gráfico y tabla
+    private static final long PUBLISH_INTERVAL_NANOS = 250_000_000L;
+
+    private final DataTransformationService transformationService;
+    private final LiveSensorService liveService;
+    private final ToggleButton liveToggle;
+    private final AnimationTimer drainTimer;
+    private Runnable onDataAppended;
+    private boolean pendingPublish;
+    private long lastPublishNanos;
+
+    public LiveSourceHandler(ToggleButton liveToggle) {
+        this.transformationService = DataTransformationService.getInstance();
+        this.liveService = new LiveSensorService();
+        this.liveToggle = liveToggle;
+        // Se vacía el buffer en cada pulso de la UI, en lote e independiente de la frecuencia del sensor
+        this.drainTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                drain(now);
+            }
+        };
+        setupControls();
+    }
+
+    private void setupControls() {
+        liveToggle.setTooltip(new Tooltip("Recibir lecturas del sensor en vivo"));
+        liveToggle.selectedProperty().addListener((obs, old, selected) -> {
+            if (selected) {
+                startLive();
+            } else {
+                stopLive();
+            }
+        });
+    }
+
+    public void setOnDataAppended(Runnable onDataAppended) {
+        this.onDataAppended = onDataAppended;
+    }
+
+    private void startLive() {
+        try {
+            SensorSource source = chooseSource();
+            if (source == null) {
+                liveToggle.setSelected(false);
+                return;
+            }
+            liveService.stop();
+            liveService.start(source, error -> Platform.runLater(() -> {
+                liveToggle.setSelected(false);
+                showAlert("Se perdió la conexión con el sensor: " + error.getMessage());
+            }));
+            liveToggle.setTooltip(new Tooltip(source.getDescription()));
+            drainTimer.start();
+        } catch (IOException | IllegalArgumentException e) {
+            liveToggle.setSelected(false);
+            showAlert("No se pudo abrir la fuente de lecturas: " + e.getMessage());
+        }
+    }
+
+    private SensorSource chooseSource() throws IOException {
+        ChoiceDialog<String> dialog = new ChoiceDialog<>(SOCKET_OPTION, SOCKET_OPTION, PIPE_OPTION, REPLAY_OPTION);
+        dialog.setTitle("Lecturas en vivo");
+        dialog.setHeaderText("Seleccione la fuente de lecturas del sensor");
+        Optional<String> option = dialog.showAndWait();
+        if (option.isEmpty()) {
+            return null;
+        }
+
+        return switch (option.get()) {
+            case SOCKET_OPTION -> {
+                Optional<String> port = askText("Puerto TCP en localhost", DEFAULT_PORT);
+                yield port.isEmpty() ? null : new SocketSensorSource(parsePort(port.get()));
+            }
+            case PIPE_OPTION -> {
+                Optional<String> pipe = askText("Ruta del named pipe", "");
+                yield pipe.isEmpty() || pipe.get().isBlank() ? null : new NamedPipeSensorSource(Path.of(pipe.get().strip()));
+            }
+            default -> {
+                FileChooser fileChooser = new FileChooser();
+                fileChooser.setTitle("Archivo a reproducir");
+                fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Archivos CSV", "*.csv"));
+                File file = fileChooser.showOpenDialog(liveToggle.getScene().getWindow());
+                yield file == null ? null : new FileReplaySource(file, REPLAY_SPEED);
+            }
+        };
+    }
+
+    private Optional<String> askText(String header, String defaultValue) {
+        TextInputDialog dialog = new TextInputDialog(defaultValue);
+        dialog.setTitle("Lecturas en vivo");
+        dialog.setHeaderText(header);
+        return dialog.showAndWait();
+    }
+
+    private int parsePort(String text) {
+        try {
+            int port = Integer.parseInt(text.strip());
+            if (port < 1 || port > 65535) {
+                throw new IllegalArgumentException("El puerto debe estar entre 1 y 65535");
+            }
+            return port;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Puerto inválido: " + text);
+        }
+    }
+
+    private void drain(long now) {
+        if (liveService.drainTo(transformationService::addReading) > 0) {
+            pendingPublish = true;
+        } else if (!liveService.isRunning()) {
+            // La fuente terminó (p. ej. fin de la reproducción)
+            liveToggle.setSelected(false);
+            return;
+        }
+        if (pendingPublish && now - lastPublishNanos >= PUBLISH_INTERVAL_NANOS) {
+            publish(now);
+        }
+    }
+
+    private void publish(long now) {
+        pendingPublish = false;
+        lastPublishNanos = now;
+        transformationService.finishIngest();
+        if (onDataAppended != null) {
+            onDataAppended.run();
+        }
+    }
+
+    public void stopLive() {
+        drainTimer.stop();
+        liveService.stop();
+        // Lo que quedó en el buffer o sin publicar se publica de inmediato
+        if (liveService.drainTo(transformationService::addReading) > 0 || pendingPublish) {
+            publish(System.nanoTime());
+        }
+        liveToggle.setTooltip(new Tooltip("Recibir lecturas del sensor en vivo"));
+    }
+
+    private void showAlert(String content) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Error");
+        alert.setHeaderText(null);
+        alert.setContentText(content);
+        alert.showAndWait();
+    }
+}
@@ -0,0 +1,318 @@
+package com.agrotech.handler;
+
+import com.agrotech.model.ReadingColumn;
+import com.agrotech.model.ReadingFilter;
+import com.agrotech.model.SensorChannel;
+import com.agrotech.model.SensorDataset;
+import com.agrotech.model.SensorSnapshot;
+import com.agrotech.service.DataTransformationService;
+import com.agrotech.service.ReadingOrderService;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.ObservableListBase;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Tabla de todas las lecturas sin copiarlas: los ítems son posiciones de fila y las celdas se leen de las
+// columnas del dataset al dibujarse, así que solo existen objetos para las filas visibles. Orden y filtro
+// se calculan en segundo plano como permutaciones de índices
+public final class ReadingsTableHandler {
+    // Más filas nuevas que esto (o una fracción del total) se ordenan desde cero en lugar de intercalarse
+    private static final int MAX_MERGED_ROWS = 1 << 16;
+
+    private final DataTransformationService transformationService;
+    private final ReadingOrderService orderService;
+    private final TableView<Integer> table;
+    private final ComboBox<String> filterChannelCombo;
+    private final TextField filterMinInput;
+    private final TextField filterMaxInput;
+    private final CheckBox irrigationOnlyCheck;
+    private final Label countLabel;
+    private final RowList rows;
+    private final ExecutorService executor;
+    private final AtomicLong latestRequest;
+    private ReadingFilter filter;
+    // Mientras se calcula un orden completo, las lecturas nuevas esperan y se intercalan al terminar
+    private boolean orderPending;
+    private boolean refreshPending;
+
+    public ReadingsTableHandler(TableView<Integer> table, ComboBox<String> filterChannelCombo,
+                                TextField filterMinInput, TextField filterMaxInput,
+                                CheckBox irrigationOnlyCheck, Label countLabel) {
+        this.transformationService = DataTransformationService.getInstance();
+        this.orderService = new ReadingOrderService();
+        this.table = table;
+        this.filterChannelCombo = filterChannelCombo;
+        this.filterMinInput = filterMinInput;
+        this.filterMaxInput = filterMaxInput;
+        this.irrigationOnlyCheck = irrigationOnlyCheck;
+        this.countLabel = countLabel;
+        this.rows = new RowList(transformationService.getSnapshot());
+        this.executor = Executors.newSingleThreadExecutor(
+                Thread.ofPlatform().name("readings-order").daemon().factory());
+        this.latestRequest = new AtomicLong();
+        this.filter = ReadingFilter.NONE;
+        setupTable();
+        setupFilter();
+    }
+
+    private void setupTable() {
+        for (ReadingColumn readingColumn : ReadingColumn.values()) {
+            TableColumn<Integer, String> column = new TableColumn<>(readingColumn.getDisplayName());
+            column.setUserData(readingColumn);
+            column.setCellValueFactory(cell ->
+                    new ReadOnlyStringWrapper(readingColumn.format(rows.data, cell.getValue())));
+            table.getColumns().add(column);
+        }
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+        table.setPlaceholder(new Label("Sin lecturas"));
+        table.setItems(rows);
+        // La tabla no reordena sus ítems: pide una permutación nueva al servicio
+        table.setSortPolicy(t -> {
+            requestOrder();
+            return true;
+        });
+    }
+
+    private void setupFilter() {
+        for (SensorChannel channel : SensorChannel.values()) {
+            filterChannelCombo.getItems().add(channel.getDisplayName());
+        }
+        filterChannelCombo.setValue(SensorChannel.SOIL_HUMIDITY.getDisplayName());
+        filterChannelCombo.valueProperty().addListener((obs, old, value) -> applyFilter());
+        irrigationOnlyCheck.selectedProperty().addListener((obs, old, value) -> applyFilter());
+        filterMinInput.setOnAction(e -> applyFilter());
+        filterMaxInput.setOnAction(e -> applyFilter());
+        filterMinInput.focusedProperty().addListener((obs, old, focused) -> {
+            if (!focused) {
+                applyFilter();
+            }
+        });
+        filterMaxInput.focusedProperty().addListener((obs, old, focused) -> {
+            if (!focused) {
+                applyFilter();
+            }
+        });
+    }
+
+    // Se llama al cargar datos y cada vez que llegan lecturas nuevas. Si solo se agregaron filas, se intercalan en
+    // el orden actual sin rehacerlo, y la tabla conserva el scroll y la selección
+    public void refresh() {
+        SensorSnapshot snapshot = transformationService.getSnapshot();
+        int appended = snapshot.data().size() - rows.data.size();
+        boolean appendOnly = snapshot.storeGeneration() == rows.generation && appended >= 0;
+        if (rows.order == null && filter.isEmpty() && table.getSortOrder().isEmpty()) {
+            // Sin orden ni filtro las filas nuevas solo se agregan al final
+            rows.replace(snapshot, null);
+            updateCount();
+        } else if (orderPending) {
+            refreshPending = true;
+        } else if (appendOnly && appended <= Math.max(MAX_MERGED_ROWS, rows.data.size() / 16)) {
+            if (appended > 0) {
+                requestMerge(snapshot);
+            }
+        } else {
+            requestOrder();
+        }
+    }
+
+    private void applyFilter() {
+        try {
+            ReadingFilter updated = new ReadingFilter(
+                    selectedChannel(),
+                    parseBound(filterMinInput, Double.NEGATIVE_INFINITY),
+                    parseBound(filterMaxInput, Double.POSITIVE_INFINITY),
+                    irrigationOnlyCheck.isSelected());
+            if (!updated.equals(filter)) {
+                filter = updated;
+                requestOrder();
+            } else {
+                updateCount();
+            }
+        } catch (NumberFormatException e) {
+            countLabel.setText("Ingrese un número válido para el filtro");
+        }
+    }
+
+    private void requestOrder() {
+        long request = latestRequest.incrementAndGet();
+        orderPending = true;
+        refreshPending = false;
+        SensorSnapshot snapshot = transformationService.getSnapshot();
+        SensorDataset data = snapshot.data();
+        ReadingColumn column = null;
+        boolean ascending = true;
+        if (!table.getSortOrder().isEmpty()) {
+            TableColumn<Integer, ?> sortColumn = table.getSortOrder().get(0);
+            column = (ReadingColumn) sortColumn.getUserData();
+            ascending = sortColumn.getSortType() == TableColumn.SortType.ASCENDING;
+        }
+        ReadingColumn sortBy = column;
+        boolean sortAscending = ascending;
+        ReadingFilter currentFilter = filter;
+        countLabel.setText("Ordenando lecturas...");
+        executor.execute(() -> {
+            if (request != latestRequest.get()) {
+                return;
+            }
+            int[] order = sortBy == null ? null : orderService.sort(data, sortBy, sortAscending);
+            int[] visible = orderService.filter(data, order, currentFilter);
+            Platform.runLater(() -> {
+                if (request == latestRequest.get()) {
+                    orderPending = false;
+                    rows.replace(snapshot, visible);
+                    updateCount();
+                    if (refreshPending) {
+                        refreshPending = false;
+                        refresh();
+                    }
+                }
+            });
+        });
+    }
+
+    private void requestMerge(SensorSnapshot snapshot) {
+        long request = latestRequest.incrementAndGet();
+        int[] visible = rows.order;
+        int firstAppended = rows.data.size();
+        ReadingColumn sortBy = null;
+        boolean ascending = true;
+        if (!table.getSortOrder().isEmpty()) {
+            TableColumn<Integer, ?> sortColumn = table.getSortOrder().get(0);
+            sortBy = (ReadingColumn) sortColumn.getUserData();
+            ascending = sortColumn.getSortType() == TableColumn.SortType.ASCENDING;
+        }
+        ReadingColumn column = sortBy;
+        boolean sortAscending = ascending;
+        ReadingFilter currentFilter = filter;
+        executor.execute(() -> {
+            if (request != latestRequest.get()) {
+                return;
+            }
+            int[] merged = orderService.mergeAppended(snapshot.data(), visible, firstAppended, column, sortAscending,
+                    currentFilter);
+            Platform.runLater(() -> {
+                if (request == latestRequest.get()) {
+                    rows.insert(snapshot, merged, firstAppended);
+                    updateCount();
+                }
+            });
+        });
+    }
+
+    private void updateCount() {
+        countLabel.setText(String.format("%,d de %,d lecturas", rows.size(), rows.data.size()));
+    }
+
+    private double parseBound(TextField input, double unbounded) {
+        String text = input.getText() == null ? "" : input.getText().trim().replace(',', '.');
+        return text.isEmpty() ? unbounded : Double.parseDouble(text);
+    }
+
+    private SensorChannel selectedChannel() {
+        for (SensorChannel channel : SensorChannel.values()) {
+            if (channel.getDisplayName().equals(filterChannelCombo.getValue())) {
+                return channel;
+            }
+        }
+        return SensorChannel.SOIL_HUMIDITY;
+    }
+
+    // Lista virtual de posiciones de fila: sin permutación es la identidad sobre el dataset
+    private static final class RowList extends ObservableListBase<Integer> {
+        private SensorDataset data;
+        private long generation;
+        private int[] order;
+
+        RowList(SensorSnapshot snapshot) {
+            this.data = snapshot.data();
+            this.generation = snapshot.storeGeneration();
+        }
+
+        @Override
+        public Integer get(int index) {
+            return order == null ? index : order[index];
+        }
+
+        @Override
+        public int size() {
+            return order == null ? data.size() : order.length;
+        }
+
+        void replace(SensorSnapshot snapshot, int[] newOrder) {
+            int oldSize = size();
+            int[] oldOrder = order;
+            boolean appended = oldOrder == null && newOrder == null && snapshot.storeGeneration() == generation
+                    && snapshot.data().size() >= oldSize;
+            data = snapshot.data();
+            generation = snapshot.storeGeneration();
+            order = newOrder;
+
+            beginChange();
+            if (appended) {
+                if (size() > oldSize) {
+                    nextAdd(oldSize, size());
+                }
+            } else {
+                nextRemove(0, removedRows(oldOrder, oldSize));
+                nextAdd(0, size());
+            }
+            endChange();
+        }
+
+        // Solo se agregaron filas desde firstAppended: el evento lista cada tramo insertado, así la tabla
+        // desplaza la selección y el scroll en lugar de reconstruirse
+        void insert(SensorSnapshot snapshot, int[] newOrder, int firstAppended) {
+            int oldSize = size();
+            data = snapshot.data();
+            generation = snapshot.storeGeneration();
+            order = newOrder;
+
+            beginChange();
+            if (newOrder == null) {
+                if (size() > oldSize) {
+                    nextAdd(oldSize, size());
+                }
+            } else {
+                int i = 0;
+                while (i < newOrder.length) {
+                    if (newOrder[i] < firstAppended) {
+                        i++;
+                        continue;
+                    }
+                    int start = i;
+                    while (i < newOrder.length && newOrder[i] >= firstAppended) {
+                        i++;
+                    }
+                    nextAdd(start, i);
+                }
+            }
+            endChange();
+        }
+
+        // Contenido anterior para el evento de cambio, también virtual
+        private static List<Integer> removedRows(int[] order, int size) {
+            return new AbstractList<>() {
+                @Override
+                public Integer get(int index) {
+                    return order == null ? index : order[index];
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+    }
+}
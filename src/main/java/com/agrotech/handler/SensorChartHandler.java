@@ -0,0 +1,312 @@
+package com.agrotech.handler;
+
+import com.agrotech.model.*;
+import com.agrotech.service.DataTransformationService;
+import com.agrotech.service.DownsamplingService;
+import javafx.application.Platform;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Tooltip;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Gráfico de tendencias dibujado en un Canvas: la UI solo dibuja unos pocos puntos por píxel ya reducidos.
+// La reducción corre en un hilo aparte y cada pedido nuevo deja sin efecto a los anteriores; mientras tanto
+// el desplazamiento y el zoom redibujan los puntos que ya se tienen en la nueva ventana
+public class SensorChartHandler {
+    private static final Color LINE_COLOR = Color.web("#3498db");
+    private static final Color GRID_COLOR = Color.web("#dee2e6");
+    private static final Color TEXT_COLOR = Color.web("#7f8c8d");
+    private static final double LEFT = 52;
+    private static final double RIGHT = 12;
+    private static final double TOP = 10;
+    private static final double BOTTOM = 24;
+    private static final int GRID_LINES = 4;
+    private static final double ZOOM_STEP = 1.2;
+    private static final long MIN_SPAN_SECONDS = 60;
+    private static final DateTimeFormatter AXIS_FORMAT = DateTimeFormatter.ofPattern("dd/MM HH:mm");
+
+    private final DataTransformationService transformationService;
+    private final DownsamplingService downsamplingService;
+    private final Canvas canvas;
+    private final ComboBox<String> channelCombo;
+    private final ComboBox<String> modeCombo;
+    private final ExecutorService executor;
+    private final AtomicLong latestRequest;
+
+    private ChartSeries series;
+    private long dataFrom;
+    private long dataTo;
+    private long viewFrom;
+    private long viewTo;
+    // Con la ventana pegada al final, las lecturas nuevas la desplazan
+    private boolean followLatest;
+    private double dragX;
+    private long dragViewFrom;
+
+    public SensorChartHandler(Pane chartPane, ComboBox<String> channelCombo, ComboBox<String> modeCombo) {
+        this.transformationService = DataTransformationService.getInstance();
+        this.downsamplingService = new DownsamplingService();
+        this.canvas = new Canvas();
+        this.channelCombo = channelCombo;
+        this.modeCombo = modeCombo;
+        this.executor = Executors.newSingleThreadExecutor(
+                Thread.ofPlatform().name("chart-downsampling").daemon().factory());
+        this.latestRequest = new AtomicLong();
+        this.followLatest = true;
+
+        chartPane.getChildren().add(canvas);
+        canvas.widthProperty().bind(chartPane.widthProperty());
+        canvas.heightProperty().bind(chartPane.heightProperty());
+        setupControls();
+    }
+
+    private void setupControls() {
+        for (SensorChannel channel : SensorChannel.values()) {
+            channelCombo.getItems().add(channel.getDisplayName());
+        }
+        channelCombo.setValue(SensorChannel.SOIL_HUMIDITY.getDisplayName());
+        for (DownsamplingMode mode : DownsamplingMode.values()) {
+            modeCombo.getItems().add(mode.getDisplayName());
+        }
+        modeCombo.setValue(DownsamplingMode.MIN_MAX.getDisplayName());
+        channelCombo.valueProperty().addListener((obs, old, value) -> requestSeries());
+        modeCombo.valueProperty().addListener((obs, old, value) -> requestSeries());
+
+        canvas.widthProperty().addListener((obs, old, value) -> requestSeries());
+        canvas.heightProperty().addListener((obs, old, value) -> draw());
+        canvas.setOnMousePressed(this::startDrag);
+        canvas.setOnMouseDragged(this::drag);
+        canvas.setOnScroll(this::zoom);
+        canvas.setOnMouseClicked(event -> {
+            if (event.getButton() == MouseButton.PRIMARY && event.getClickCount() == 2) {
+                showAll();
+            }
+        });
+        Tooltip.install(canvas, new Tooltip("Arrastre para desplazar, use la rueda para acercar y doble clic para ver todo"));
+    }
+
+    // Se llama al cargar datos y cada vez que llegan lecturas nuevas
+    public void refresh() {
+        SensorDataset data = transformationService.getSensorData();
+        if (data.isEmpty()) {
+            series = null;
+            draw();
+            return;
+        }
+        boolean showingAll = viewFrom <= dataFrom && viewTo >= dataTo;
+        long span = viewTo - viewFrom;
+        dataFrom = data.epochSecond(0);
+        dataTo = data.epochSecond(data.size() - 1);
+        if (series == null || showingAll) {
+            viewFrom = dataFrom;
+            viewTo = dataTo;
+        } else if (followLatest) {
+            viewTo = dataTo;
+            viewFrom = Math.max(dataFrom, dataTo - span);
+        }
+        requestSeries();
+    }
+
+    private void showAll() {
+        viewFrom = dataFrom;
+        viewTo = dataTo;
+        followLatest = true;
+        draw();
+        requestSeries();
+    }
+
+    private void startDrag(MouseEvent event) {
+        dragX = event.getX();
+        dragViewFrom = viewFrom;
+    }
+
+    private void drag(MouseEvent event) {
+        double plotWidth = plotWidth();
+        if (plotWidth <= 0) {
+            return;
+        }
+        long span = viewTo - viewFrom;
+        long shift = Math.round((dragX - event.getX()) / plotWidth * span);
+        setView(dragViewFrom + shift, dragViewFrom + shift + span);
+    }
+
+    private void zoom(ScrollEvent event) {
+        double plotWidth = plotWidth();
+        if (event.getDeltaY() == 0 || plotWidth <= 0) {
+            return;
+        }
+        double factor = event.getDeltaY() > 0 ? 1 / ZOOM_STEP : ZOOM_STEP;
+        double anchor = Math.max(0, Math.min(1, (event.getX() - LEFT) / plotWidth));
+        long span = viewTo - viewFrom;
+        long anchorEpoch = viewFrom + Math.round(anchor * span);
+        long newSpan = Math.max(MIN_SPAN_SECONDS, Math.min(dataTo - dataFrom, Math.round(span * factor)));
+        long from = anchorEpoch - Math.round(anchor * newSpan);
+        setView(from, from + newSpan);
+    }
+
+    // Mantiene la ventana dentro de los datos, redibuja lo que ya se tiene y pide la nueva reducción
+    private void setView(long from, long to) {
+        long span = to - from;
+        if (from < dataFrom) {
+            from = dataFrom;
+        }
+        if (from + span > dataTo) {
+            from = Math.max(dataFrom, dataTo - span);
+        }
+        viewFrom = from;
+        viewTo = Math.min(dataTo, from + span);
+        followLatest = viewTo >= dataTo;
+        draw();
+        requestSeries();
+    }
+
+    private void requestSeries() {
+        int pixels = (int) plotWidth();
+        if (pixels <= 0 || viewTo <= viewFrom || channelCombo.getValue() == null || modeCombo.getValue() == null) {
+            draw();
+            return;
+        }
+        long request = latestRequest.incrementAndGet();
+        SensorChannel channel = selectedChannel();
+        DownsamplingMode mode = selectedMode();
+        long from = viewFrom;
+        long to = viewTo;
+        executor.execute(() -> {
+            if (request != latestRequest.get()) {
+                return;
+            }
+            SensorSnapshot snapshot = transformationService.getSnapshot();
+            ChartSeries result = downsamplingService.downsample(snapshot, transformationService.getTimeIndex(snapshot),
+                    channel, from, to, pixels, mode);
+            Platform.runLater(() -> {
+                if (request == latestRequest.get()) {
+                    series = result;
+                    draw();
+                }
+            });
+        });
+    }
+
+    private void draw() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        gc.clearRect(0, 0, width, height);
+        double plotWidth = plotWidth();
+        double plotHeight = height - TOP - BOTTOM;
+        if (plotWidth <= 0 || plotHeight <= 0) {
+            return;
+        }
+
+        gc.setFill(TEXT_COLOR);
+        gc.setFont(Font.font(11));
+        if (series == null || series.isEmpty()) {
+            gc.setTextAlign(TextAlignment.CENTER);
+            gc.setTextBaseline(VPos.CENTER);
+            gc.fillText("Sin datos para graficar", width / 2, height / 2);
+            return;
+        }
+
+        // Escala vertical según los puntos visibles, con un margen del 5%
+        double low = Double.POSITIVE_INFINITY;
+        double high = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < series.size(); i++) {
+            long epoch = series.epochSeconds()[i];
+            if (epoch >= viewFrom && epoch <= viewTo) {
+                low = Math.min(low, series.min()[i]);
+                high = Math.max(high, series.max()[i]);
+            }
+        }
+        if (low > high) {
+            low = series.min()[0];
+            high = series.max()[0];
+        }
+        double margin = Math.max((high - low) * 0.05, 0.5);
+        low -= margin;
+        high += margin;
+
+        drawAxes(gc, plotWidth, plotHeight, low, high);
+
+        double span = Math.max(1, viewTo - viewFrom);
+        double scaleY = plotHeight / (high - low);
+        gc.save();
+        gc.beginPath();
+        gc.rect(LEFT, TOP, plotWidth, plotHeight);
+        gc.clip();
+        gc.setStroke(LINE_COLOR);
+        gc.setLineWidth(1.2);
+        gc.beginPath();
+        for (int i = 0; i < series.size(); i++) {
+            double x = LEFT + (series.epochSeconds()[i] - viewFrom) / span * plotWidth;
+            double yMin = TOP + (high - series.min()[i]) * scaleY;
+            double yMax = TOP + (high - series.max()[i]) * scaleY;
+            if (i == 0) {
+                gc.moveTo(x, yMin);
+            } else {
+                gc.lineTo(x, yMin);
+            }
+            if (yMax != yMin) {
+                gc.lineTo(x, yMax);
+            }
+        }
+        gc.stroke();
+        gc.restore();
+    }
+
+    private void drawAxes(GraphicsContext gc, double plotWidth, double plotHeight, double low, double high) {
+        gc.setStroke(GRID_COLOR);
+        gc.setLineWidth(1);
+        gc.setTextAlign(TextAlignment.RIGHT);
+        gc.setTextBaseline(VPos.CENTER);
+        for (int line = 0; line <= GRID_LINES; line++) {
+            double y = Math.round(TOP + plotHeight * line / GRID_LINES) + 0.5;
+            gc.strokeLine(LEFT, y, LEFT + plotWidth, y);
+            gc.fillText(String.format("%.1f", high - (high - low) * line / GRID_LINES), LEFT - 6, y);
+        }
+
+        gc.setTextBaseline(VPos.TOP);
+        double labelY = TOP + plotHeight + 6;
+        gc.setTextAlign(TextAlignment.LEFT);
+        gc.fillText(SensorTimestamp.toLocalDateTime(viewFrom).format(AXIS_FORMAT), LEFT, labelY);
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.fillText(SensorTimestamp.toLocalDateTime(viewFrom + (viewTo - viewFrom) / 2).format(AXIS_FORMAT),
+                LEFT + plotWidth / 2, labelY);
+        gc.setTextAlign(TextAlignment.RIGHT);
+        gc.fillText(SensorTimestamp.toLocalDateTime(viewTo).format(AXIS_FORMAT), LEFT + plotWidth, labelY);
+    }
+
+    private double plotWidth() {
+        return canvas.getWidth() - LEFT - RIGHT;
+    }
+
+    private SensorChannel selectedChannel() {
+        for (SensorChannel channel : SensorChannel.values()) {
+            if (channel.getDisplayName().equals(channelCombo.getValue())) {
+                return channel;
+            }
+        }
+        return SensorChannel.SOIL_HUMIDITY;
+    }
+
+    private DownsamplingMode selectedMode() {
+        for (DownsamplingMode mode : DownsamplingMode.values()) {
+            if (mode.getDisplayName().equals(modeCombo.getValue())) {
+                return mode;
+            }
+        }
+        return DownsamplingMode.MIN_MAX;
+    }
+}
@@ -0,0 +1,68 @@
+package com.agrotech.handler;
+
+import com.agrotech.model.SensorChannel;
+import com.agrotech.model.SensorSnapshot;
+import com.agrotech.model.StatsWindow;
+import com.agrotech.model.WindowStatistics;
+import com.agrotech.service.DataTransformationService;
+import javafx.scene.control.Label;
+import javafx.scene.control.Tooltip;
+import javafx.scene.shape.Circle;
+
+// Estado del sistema a partir de las estadísticas de ventana ya publicadas; no recorre el historial
+public class SystemStatusHandler {
+    private static final double CRITICAL_SOIL_HUMIDITY = 20.0;
+    // Diferencia mínima, en puntos de humedad, para hablar de tendencia aunque la ventana sea muy estable
+    private static final double MIN_TREND = 1.0;
+
+    private final DataTransformationService transformationService;
+    private final Circle statusIndicator;
+    private final Label systemStatusLabel;
+    private final Tooltip detailTooltip;
+
+    public SystemStatusHandler(Circle statusIndicator, Label systemStatusLabel) {
+        this.transformationService = DataTransformationService.getInstance();
+        this.statusIndicator = statusIndicator;
+        this.systemStatusLabel = systemStatusLabel;
+        this.detailTooltip = new Tooltip();
+    }
+
+    public void update() {
+        SensorSnapshot snapshot = transformationService.getSnapshot();
+        WindowStatistics recentSoil = snapshot.statistics(StatsWindow.RECENT, SensorChannel.SOIL_HUMIDITY);
+        WindowStatistics hourSoil = snapshot.statistics(StatsWindow.HOUR, SensorChannel.SOIL_HUMIDITY);
+        WindowStatistics recentAir = snapshot.statistics(StatsWindow.RECENT, SensorChannel.AIR_TEMPERATURE);
+
+        if (recentSoil.isEmpty()) {
+            show("success", "Sistema Operativo");
+            systemStatusLabel.setTooltip(null);
+            return;
+        }
+
+        double trend = recentSoil.ewma() - hourSoil.mean();
+        boolean significant = Math.abs(trend) > Math.max(MIN_TREND, hourSoil.stdDev());
+        String summary = String.format("Suelo %.1f%% · Aire %.1f °C", recentSoil.ewma(), recentAir.ewma());
+
+        if (recentSoil.ewma() < CRITICAL_SOIL_HUMIDITY) {
+            show("error", "Humedad del suelo crítica · " + summary);
+        } else if (significant && trend < 0) {
+            show("warning", "Humedad del suelo en descenso · " + summary);
+        } else if (recentSoil.count() == StatsWindow.RECENT.getMaxCount() && recentSoil.max() == recentSoil.min()) {
+            show("warning", "Sensor sin variación · " + summary);
+        } else {
+            show("success", "Sistema Operativo · " + summary + (significant ? " · Humedad en ascenso" : ""));
+        }
+
+        detailTooltip.setText(String.format(
+                "%s: humedad del suelo %.1f–%.1f%%, media %.1f%% (σ %.2f)%n%s: media %.1f%%",
+                StatsWindow.HOUR.getDisplayName(), hourSoil.min(), hourSoil.max(), hourSoil.mean(), hourSoil.stdDev(),
+                StatsWindow.RECENT.getDisplayName(), recentSoil.mean()));
+        systemStatusLabel.setTooltip(detailTooltip);
+    }
+
+    private void show(String styleClass, String text) {
+        statusIndicator.getStyleClass().removeAll("success", "warning", "error");
+        statusIndicator.getStyleClass().add(styleClass);
+        systemStatusLabel.setText(text);
+    }
+}
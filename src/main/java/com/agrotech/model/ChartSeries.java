@@ -0,0 +1,20 @@
+package com.agrotech.model;
+
+// Puntos ya reducidos para dibujar: con mín/máx cada punto es una columna de píxeles con su rango de valores,
+// con LTTB min y max coinciden
+public record ChartSeries(
+        long fromEpochSecond,
+        long toEpochSecond,
+        long[] epochSeconds,
+        double[] min,
+        double[] max,
+        int size
+) {
+    public static ChartSeries empty(long fromEpochSecond, long toEpochSecond) {
+        return new ChartSeries(fromEpochSecond, toEpochSecond, new long[0], new double[0], new double[0], 0);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -0,0 +1,77 @@
+package com.agrotech.model;
+
+import com.agrotech.exception.FileValidationException;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Posición de cada columna requerida dentro del CSV, construida una sola vez a partir del header
+public final class ColumnMapping {
+    public static final List<String> REQUIRED_HEADERS = List.of(
+            "timestamp", "soil_humidity", "air_temperature", "air_humidity", "irrigation_status"
+    );
+    public static final int TIMESTAMP = 0;
+    public static final int SOIL_HUMIDITY = 1;
+    public static final int AIR_TEMPERATURE = 2;
+    public static final int AIR_HUMIDITY = 3;
+    public static final int IRRIGATION_STATUS = 4;
+    public static final int IGNORED = -1;
+
+    public static final ColumnMapping DEFAULT = new ColumnMapping(new int[] {0, 1, 2, 3, 4}, 5);
+
+    private final int[] columnByField;
+    private final int[] fieldByColumn;
+    private final int columnCount;
+
+    private ColumnMapping(int[] columnByField, int columnCount) {
+        this.columnByField = columnByField;
+        this.columnCount = columnCount;
+        this.fieldByColumn = new int[columnCount];
+        Arrays.fill(fieldByColumn, IGNORED);
+        for (int field = 0; field < columnByField.length; field++) {
+            fieldByColumn[columnByField[field]] = field;
+        }
+    }
+
+    public static ColumnMapping fromHeader(String headerLine) throws FileValidationException {
+        if (headerLine == null || headerLine.isBlank()) {
+            throw new FileValidationException("El archivo no contiene headers");
+        }
+
+        String[] headers = headerLine.replace("\uFEFF", "").toLowerCase().split(",", -1);
+        int[] columnByField = new int[REQUIRED_HEADERS.size()];
+        Arrays.fill(columnByField, IGNORED);
+        for (int column = 0; column < headers.length; column++) {
+            int field = REQUIRED_HEADERS.indexOf(headers[column].trim());
+            if (field >= 0 && columnByField[field] == IGNORED) {
+                columnByField[field] = column;
+            }
+        }
+
+        for (int field = 0; field < columnByField.length; field++) {
+            if (columnByField[field] == IGNORED) {
+                throw new FileValidationException(
+                        String.format("Falta la columna requerida: %s", REQUIRED_HEADERS.get(field))
+                );
+            }
+        }
+        return new ColumnMapping(columnByField, headers.length);
+    }
+
+    public int columnCount() {
+        return columnCount;
+    }
+
+    public int columnOf(int field) {
+        return columnByField[field];
+    }
+
+    // Campo requerido que ocupa la columna, o IGNORED para columnas adicionales (pH, luz, ...)
+    public int fieldAt(int column) {
+        return fieldByColumn[column];
+    }
+
+    public boolean isDefaultLayout() {
+        return columnCount == DEFAULT.columnCount && Arrays.equals(columnByField, DEFAULT.columnByField);
+    }
+}
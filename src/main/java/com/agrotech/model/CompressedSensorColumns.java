@@ -0,0 +1,276 @@
+package com.agrotech.model;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import static com.agrotech.model.SensorBlockCodec.BLOCK_ROWS;
+
+// Almacén comprimido en bloques de 1024 filas (ver SensorBlockCodec). Las filas nuevas se juntan en columnas
+// comunes y se comprimen al completar un bloque. Un bloque cerrado no vuelve a cambiar, así que las vistas
+// comparten los bloques y la caché de bloques decodificados de cada hilo
+public class CompressedSensorColumns implements SensorStore {
+    private long[][] blocks;
+    // Primer timestamp de cada bloque: el índice temporal muestrea justo esas filas sin decodificar
+    private long[] firstEpochs;
+    private int sealed;
+    private SensorColumns tail;
+    private final ThreadLocal<BlockCache> cache;
+    // Vista sobre el estado actual para los accesos por fila; se arma de nuevo al cerrar un bloque o cambiar la cola
+    private View view;
+
+    public CompressedSensorColumns() {
+        this.blocks = new long[16][];
+        this.firstEpochs = new long[16];
+        this.tail = new SensorColumns(BLOCK_ROWS);
+        this.cache = ThreadLocal.withInitial(BlockCache::new);
+    }
+
+    // Bloques ya codificados, por ejemplo leídos de un snapshot; todos menos el último deben estar completos
+    public static CompressedSensorColumns fromBlocks(long[][] encoded, int[] rows) {
+        CompressedSensorColumns columns = new CompressedSensorColumns();
+        SensorBlockCodec.DecodedBlock decoded = new SensorBlockCodec.DecodedBlock();
+        for (int b = 0; b < encoded.length; b++) {
+            if (rows[b] == BLOCK_ROWS) {
+                // Los primeros 64 bits del bloque son su primer timestamp
+                columns.seal(encoded[b], encoded[b][0]);
+            } else {
+                SensorBlockCodec.decode(encoded[b], rows[b], decoded);
+                for (int i = 0; i < decoded.rows(); i++) {
+                    columns.accept(decoded.epochSecond(i), decoded.soilHumidity(i), decoded.airTemperature(i),
+                            decoded.airHumidity(i), decoded.irrigationStatus(i));
+                }
+            }
+        }
+        return columns;
+    }
+
+    @Override
+    public void accept(long epochSecond, double soilHumidity, double airTemperature,
+                       double airHumidity, boolean irrigationStatus) {
+        tail.accept(epochSecond, soilHumidity, airTemperature, airHumidity, irrigationStatus);
+        if (tail.size() == BLOCK_ROWS) {
+            seal(SensorBlockCodec.encode(tail, 0, BLOCK_ROWS), tail.epochSecond(0));
+            // Columnas nuevas: las vistas ya tomadas siguen leyendo las anteriores
+            tail = new SensorColumns(BLOCK_ROWS);
+        }
+    }
+
+    @Override
+    public int size() {
+        return sealed * BLOCK_ROWS + tail.size();
+    }
+
+    @Override
+    public long epochSecond(int index) {
+        return view().epochSecond(index);
+    }
+
+    @Override
+    public double soilHumidity(int index) {
+        return view().soilHumidity(index);
+    }
+
+    @Override
+    public double airTemperature(int index) {
+        return view().airTemperature(index);
+    }
+
+    @Override
+    public double airHumidity(int index) {
+        return view().airHumidity(index);
+    }
+
+    @Override
+    public boolean irrigationStatus(int index) {
+        return view().irrigationStatus(index);
+    }
+
+    @Override
+    public void forEach(int from, int to, SensorRowSink visitor) {
+        view().forEach(from, to, visitor);
+    }
+
+    @Override
+    public SensorDataset snapshot() {
+        return new View(blocks, firstEpochs, sealed, tail.snapshot(), cache);
+    }
+
+    // Bytes ocupados por los bloques cerrados, para comparar con las columnas sin comprimir
+    public long getCompressedBytes() {
+        long bytes = 0;
+        for (int b = 0; b < sealed; b++) {
+            bytes += (long) blocks[b].length * Long.BYTES;
+        }
+        return bytes;
+    }
+
+    @Override
+    public void close() {
+        blocks = new long[0][];
+        firstEpochs = new long[0];
+        sealed = 0;
+        tail = new SensorColumns(1);
+    }
+
+    private View view() {
+        View current = view;
+        if (current == null || current.tail != tail) {
+            current = new View(blocks, firstEpochs, sealed, tail, cache);
+            view = current;
+        }
+        return current;
+    }
+
+    private void seal(long[] encoded, long firstEpoch) {
+        if (sealed == blocks.length) {
+            blocks = Arrays.copyOf(blocks, sealed * 2);
+            firstEpochs = Arrays.copyOf(firstEpochs, sealed * 2);
+        }
+        blocks[sealed] = encoded;
+        firstEpochs[sealed] = firstEpoch;
+        sealed++;
+        view = null;
+    }
+
+    // Vista de solo lectura: bloques cerrados compartidos más las filas sin comprimir del final
+    public static final class View implements SensorDataset {
+        private final long[][] blocks;
+        private final long[] firstEpochs;
+        private final int sealed;
+        private final SensorDataset tail;
+        private final ThreadLocal<BlockCache> cache;
+
+        private View(long[][] blocks, long[] firstEpochs, int sealed, SensorDataset tail,
+                     ThreadLocal<BlockCache> cache) {
+            this.blocks = blocks;
+            this.firstEpochs = firstEpochs;
+            this.sealed = sealed;
+            this.tail = tail;
+            this.cache = cache;
+        }
+
+        // Bloques completos más el bloque final parcial, codificado en el momento
+        public int blockCount() {
+            return tail.isEmpty() ? sealed : sealed + 1;
+        }
+
+        public int blockRows(int block) {
+            return block < sealed ? BLOCK_ROWS : tail.size();
+        }
+
+        public long[] encodedBlock(int block) {
+            Objects.checkIndex(block, blockCount());
+            return block < sealed ? blocks[block] : SensorBlockCodec.encode(tail, 0, tail.size());
+        }
+
+        @Override
+        public int size() {
+            return sealed * BLOCK_ROWS + tail.size();
+        }
+
+        @Override
+        public long epochSecond(int index) {
+            int row = Objects.checkIndex(index, size());
+            if (row >= sealed * BLOCK_ROWS) {
+                return tail.epochSecond(row - sealed * BLOCK_ROWS);
+            }
+            if ((row & (BLOCK_ROWS - 1)) == 0) {
+                return firstEpochs[row / BLOCK_ROWS];
+            }
+            return block(row).epochSecond(row & (BLOCK_ROWS - 1));
+        }
+
+        @Override
+        public double soilHumidity(int index) {
+            int row = Objects.checkIndex(index, size());
+            return row >= sealed * BLOCK_ROWS ? tail.soilHumidity(row - sealed * BLOCK_ROWS)
+                    : block(row).soilHumidity(row & (BLOCK_ROWS - 1));
+        }
+
+        @Override
+        public double airTemperature(int index) {
+            int row = Objects.checkIndex(index, size());
+            return row >= sealed * BLOCK_ROWS ? tail.airTemperature(row - sealed * BLOCK_ROWS)
+                    : block(row).airTemperature(row & (BLOCK_ROWS - 1));
+        }
+
+        @Override
+        public double airHumidity(int index) {
+            int row = Objects.checkIndex(index, size());
+            return row >= sealed * BLOCK_ROWS ? tail.airHumidity(row - sealed * BLOCK_ROWS)
+                    : block(row).airHumidity(row & (BLOCK_ROWS - 1));
+        }
+
+        @Override
+        public boolean irrigationStatus(int index) {
+            int row = Objects.checkIndex(index, size());
+            return row >= sealed * BLOCK_ROWS ? tail.irrigationStatus(row - sealed * BLOCK_ROWS)
+                    : block(row).irrigationStatus(row & (BLOCK_ROWS - 1));
+        }
+
+        // Decodifica cada bloque una sola vez en un buffer propio, sin pasar por la caché
+        @Override
+        public void forEach(int from, int to, SensorRowSink visitor) {
+            Objects.checkFromToIndex(from, to, size());
+            SensorBlockCodec.DecodedBlock decoded = new SensorBlockCodec.DecodedBlock();
+            int row = from;
+            while (row < to && row < sealed * BLOCK_ROWS) {
+                int block = row / BLOCK_ROWS;
+                SensorBlockCodec.decode(blocks[block], BLOCK_ROWS, decoded);
+                int end = Math.min(to, (block + 1) * BLOCK_ROWS);
+                for (; row < end; row++) {
+                    int i = row & (BLOCK_ROWS - 1);
+                    visitor.accept(decoded.epochSecond(i), decoded.soilHumidity(i), decoded.airTemperature(i),
+                            decoded.airHumidity(i), decoded.irrigationStatus(i));
+                }
+            }
+            if (row < to) {
+                tail.forEach(row - sealed * BLOCK_ROWS, to - sealed * BLOCK_ROWS, visitor);
+            }
+        }
+
+        private SensorBlockCodec.DecodedBlock block(int row) {
+            return cache.get().get(blocks[row / BLOCK_ROWS]);
+        }
+    }
+
+    // Últimos bloques decodificados por un hilo. Cada hilo decodifica en sus propios buffers, que se reutilizan al
+    // reemplazar el bloque usado hace más tiempo: un fallo no reserva memoria y los lectores no se pisan
+    private static final class BlockCache {
+        private static final int CAPACITY = 16;
+
+        private final long[][] encoded = new long[CAPACITY][];
+        private final SensorBlockCodec.DecodedBlock[] decoded = new SensorBlockCodec.DecodedBlock[CAPACITY];
+        private final long[] lastUse = new long[CAPACITY];
+        private long clock;
+        private int last;
+
+        SensorBlockCodec.DecodedBlock get(long[] block) {
+            // En lecturas secuenciales casi siempre se repite el último bloque
+            if (encoded[last] == block) {
+                return decoded[last];
+            }
+            int victim = 0;
+            for (int i = 0; i < CAPACITY; i++) {
+                if (encoded[i] == block) {
+                    return use(i);
+                }
+                if (lastUse[i] < lastUse[victim]) {
+                    victim = i;
+                }
+            }
+            if (decoded[victim] == null) {
+                decoded[victim] = new SensorBlockCodec.DecodedBlock();
+            }
+            SensorBlockCodec.decode(block, BLOCK_ROWS, decoded[victim]);
+            encoded[victim] = block;
+            return use(victim);
+        }
+
+        private SensorBlockCodec.DecodedBlock use(int slot) {
+            lastUse[slot] = ++clock;
+            last = slot;
+            return decoded[slot];
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.agrotech.model;
+
+public enum DownsamplingMode {
+    MIN_MAX("Mín/máx por píxel"),
+    LTTB("LTTB");
+
+    private final String displayName;
+
+    DownsamplingMode(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
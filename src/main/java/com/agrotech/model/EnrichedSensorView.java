@@ -0,0 +1,40 @@
+package com.agrotech.model;
+
+// Lecturas enriquecidas sin copias: cada campo se resuelve al pedirlo, primero en los overrides y si no
+// con el valor por defecto. Solo get() arma un SensorDataEnriched, y únicamente para la fila pedida
+public record EnrichedSensorView(SensorDataset data, SensorEnrichment enrichment) {
+
+    public int size() {
+        return data.size();
+    }
+
+    public boolean isEmpty() {
+        return data.isEmpty();
+    }
+
+    public String cropType(int row) {
+        return enrichment.cropTypes().get(data.epochSecond(row), null);
+    }
+
+    public WaterData waterData(int row) {
+        WaterData override = enrichment.waterData().get(data.epochSecond(row), null);
+        return override != null ? override : WaterData.defaultFor(data.airTemperature(row));
+    }
+
+    public double irrigationLevel(int row) {
+        return enrichment.irrigationLevels().get(data.epochSecond(row), SensorEnrichment.DEFAULT_IRRIGATION_LEVEL);
+    }
+
+    public SensorDataEnriched get(int row) {
+        return new SensorDataEnriched(
+                data.timestamp(row),
+                data.soilHumidity(row),
+                data.airTemperature(row),
+                data.airHumidity(row),
+                data.irrigationStatus(row),
+                cropType(row),
+                waterData(row),
+                irrigationLevel(row)
+        );
+    }
+}
@@ -0,0 +1,87 @@
+package com.agrotech.model;
+
+import java.util.Arrays;
+
+// Conjunto de epoch seconds con direccionamiento abierto sobre un long[]; no crea objetos por elemento
+public class EpochSecondSet {
+    private static final long EMPTY = 0;
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private long[] slots;
+    private boolean containsEmpty;
+    private int size;
+
+    public EpochSecondSet() {
+        this.slots = new long[DEFAULT_CAPACITY];
+    }
+
+    // Devuelve false si el valor ya estaba en el conjunto
+    public boolean add(long epochSecond) {
+        if (epochSecond == EMPTY) {
+            boolean added = !containsEmpty;
+            containsEmpty = true;
+            return added;
+        }
+        if ((size + 1) * 4L > slots.length * 3L) {
+            rehash(slots.length * 2);
+        }
+
+        int mask = slots.length - 1;
+        int slot = hash(epochSecond) & mask;
+        while (slots[slot] != EMPTY) {
+            if (slots[slot] == epochSecond) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = epochSecond;
+        size++;
+        return true;
+    }
+
+    public boolean contains(long epochSecond) {
+        if (epochSecond == EMPTY) {
+            return containsEmpty;
+        }
+        int mask = slots.length - 1;
+        int slot = hash(epochSecond) & mask;
+        while (slots[slot] != EMPTY) {
+            if (slots[slot] == epochSecond) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size + (containsEmpty ? 1 : 0);
+    }
+
+    public void clear() {
+        Arrays.fill(slots, EMPTY);
+        containsEmpty = false;
+        size = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = slots;
+        slots = new long[capacity];
+        int mask = capacity - 1;
+        for (long value : old) {
+            if (value != EMPTY) {
+                int slot = hash(value) & mask;
+                while (slots[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = value;
+            }
+        }
+    }
+
+    // Timestamps consecutivos difieren en los bits bajos; la mezcla los reparte por toda la tabla
+    private static int hash(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,10 @@
+package com.agrotech.model;
+
+// Hasta dónde leyó la carga de un CSV plano: offset queda justo después de la última línea completa y lines es
+// la cantidad de líneas de datos antes de offset. Si el archivo terminaba en una línea sin '\n', la carga la
+// tomó tal como estaba y partialEpochSecond es su timestamp; si no, Long.MIN_VALUE
+public record FollowPosition(long offset, long lines, long partialEpochSecond) {
+    public boolean hasPartialLine() {
+        return partialEpochSecond != Long.MIN_VALUE;
+    }
+}
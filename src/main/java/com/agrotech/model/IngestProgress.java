@@ -0,0 +1,16 @@
+package com.agrotech.model;
+
+import java.time.Duration;
+
+public record IngestProgress(
+        double fraction,
+        long rowsProcessed,
+        long bytesProcessed,
+        double rowsPerSecond,
+        double bytesPerSecond,
+        Duration estimatedRemaining
+) {
+    public boolean hasEstimate() {
+        return estimatedRemaining != null;
+    }
+}
@@ -0,0 +1,30 @@
+package com.agrotech.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Un riego: desde la primera lectura con riego activo hasta la primera lectura con riego apagado. Si el
+// riego sigue activo (open) termina en la última lectura disponible
+public record IrrigationEvent(
+        long startEpochSecond,
+        long endEpochSecond,
+        double soilHumidityStart,
+        double soilHumidityEnd,
+        boolean open
+) {
+    public LocalDateTime start() {
+        return SensorTimestamp.toLocalDateTime(startEpochSecond);
+    }
+
+    public LocalDateTime end() {
+        return SensorTimestamp.toLocalDateTime(endEpochSecond);
+    }
+
+    public Duration duration() {
+        return Duration.ofSeconds(endEpochSecond - startEpochSecond);
+    }
+
+    public double soilHumidityDelta() {
+        return soilHumidityEnd - soilHumidityStart;
+    }
+}
@@ -0,0 +1,71 @@
+package com.agrotech.model;
+
+import java.util.Arrays;
+
+// Detecta los riegos en una sola pasada sobre las lecturas ordenadas por timestamp. Como en SensorRollup,
+// los riegos cerrados solo se agregan al final de los arreglos y el abierto vive aparte, así que snapshot()
+// no copia nada más que ese riego
+public final class IrrigationEventLog implements SensorRowSink {
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private long[] starts;
+    private long[] ends;
+    private double[] humidityStarts;
+    private double[] humidityEnds;
+    // Suma de duraciones de los riegos [0, i), para totalizar un rango sin recorrerlo
+    private long[] cumulativeSeconds;
+    private int closed;
+
+    private boolean running;
+    private long openStart;
+    private double openHumidityStart;
+    private long lastEpochSecond;
+    private double lastSoilHumidity;
+
+    public IrrigationEventLog() {
+        this.starts = new long[DEFAULT_CAPACITY];
+        this.ends = new long[DEFAULT_CAPACITY];
+        this.humidityStarts = new double[DEFAULT_CAPACITY];
+        this.humidityEnds = new double[DEFAULT_CAPACITY];
+        this.cumulativeSeconds = new long[DEFAULT_CAPACITY + 1];
+    }
+
+    @Override
+    public void accept(long epochSecond, double soilHumidity, double airTemperature,
+                       double airHumidity, boolean irrigationStatus) {
+        if (irrigationStatus && !running) {
+            running = true;
+            openStart = epochSecond;
+            openHumidityStart = soilHumidity;
+        } else if (!irrigationStatus && running) {
+            running = false;
+            close(epochSecond, soilHumidity);
+        }
+        lastEpochSecond = epochSecond;
+        lastSoilHumidity = soilHumidity;
+    }
+
+    public IrrigationEvents snapshot() {
+        IrrigationEvent open = running
+                ? new IrrigationEvent(openStart, lastEpochSecond, openHumidityStart, lastSoilHumidity, true)
+                : null;
+        return new IrrigationEvents(starts, ends, humidityStarts, humidityEnds, cumulativeSeconds, closed, open);
+    }
+
+    private void close(long endEpochSecond, double soilHumidityEnd) {
+        if (closed == starts.length) {
+            int capacity = closed + (closed >> 1);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            humidityStarts = Arrays.copyOf(humidityStarts, capacity);
+            humidityEnds = Arrays.copyOf(humidityEnds, capacity);
+            cumulativeSeconds = Arrays.copyOf(cumulativeSeconds, capacity + 1);
+        }
+        starts[closed] = openStart;
+        ends[closed] = endEpochSecond;
+        humidityStarts[closed] = openHumidityStart;
+        humidityEnds[closed] = soilHumidityEnd;
+        cumulativeSeconds[closed + 1] = cumulativeSeconds[closed] + (endEpochSecond - openStart);
+        closed++;
+    }
+}
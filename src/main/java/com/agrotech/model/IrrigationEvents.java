@@ -0,0 +1,126 @@
+package com.agrotech.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+// Vista inmutable de los riegos detectados, ordenados por inicio y sin solaparse. Las consultas por rango
+// usan búsqueda binaria y el total de horas de riego sale de sumas acumuladas
+public final class IrrigationEvents {
+    private final long[] starts;
+    private final long[] ends;
+    private final double[] humidityStarts;
+    private final double[] humidityEnds;
+    private final long[] cumulativeSeconds;
+    private final int closed;
+    private final IrrigationEvent open;
+
+    IrrigationEvents(long[] starts, long[] ends, double[] humidityStarts, double[] humidityEnds,
+                     long[] cumulativeSeconds, int closed, IrrigationEvent open) {
+        this.starts = starts;
+        this.ends = ends;
+        this.humidityStarts = humidityStarts;
+        this.humidityEnds = humidityEnds;
+        this.cumulativeSeconds = cumulativeSeconds;
+        this.closed = closed;
+        this.open = open;
+    }
+
+    public int size() {
+        return open != null ? closed + 1 : closed;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public IrrigationEvent get(int index) {
+        Objects.checkIndex(index, size());
+        if (index == closed) {
+            return open;
+        }
+        return new IrrigationEvent(starts[index], ends[index], humidityStarts[index], humidityEnds[index], false);
+    }
+
+    // Riego en curso al publicar, o null
+    public IrrigationEvent getOpen() {
+        return open;
+    }
+
+    // Riegos que se superponen con [from, to]
+    public List<IrrigationEvent> between(LocalDateTime from, LocalDateTime to) {
+        long fromEpoch = SensorTimestamp.toEpochSecond(from);
+        long toEpoch = SensorTimestamp.toEpochSecond(to);
+        List<IrrigationEvent> events = new ArrayList<>();
+        for (int i = firstEndingAfter(fromEpoch); i < size() && startOf(i) <= toEpoch; i++) {
+            events.add(get(i));
+        }
+        return events;
+    }
+
+    // Tiempo total regando dentro de [from, to]; los riegos en los bordes cuentan solo la parte interna
+    public Duration totalDuration(LocalDateTime from, LocalDateTime to) {
+        long fromEpoch = SensorTimestamp.toEpochSecond(from);
+        long toEpoch = SensorTimestamp.toEpochSecond(to);
+        if (toEpoch <= fromEpoch) {
+            return Duration.ZERO;
+        }
+        int first = firstEndingAfter(fromEpoch);
+        int last = firstStartingAfter(toEpoch) - 1;
+        if (first > last) {
+            return Duration.ZERO;
+        }
+        long seconds = 0;
+        int closedLast = Math.min(last, closed - 1);
+        if (first <= closedLast) {
+            seconds += cumulativeSeconds[closedLast + 1] - cumulativeSeconds[first];
+        }
+        if (last == closed) {
+            seconds += open.endEpochSecond() - open.startEpochSecond();
+        }
+        // Se descuenta lo que queda fuera del rango en el primer y el último riego
+        seconds -= Math.max(0, fromEpoch - startOf(first));
+        seconds -= Math.max(0, endOf(last) - toEpoch);
+        return Duration.ofSeconds(Math.max(0, seconds));
+    }
+
+    private long startOf(int index) {
+        return index < closed ? starts[index] : open.startEpochSecond();
+    }
+
+    private long endOf(int index) {
+        return index < closed ? ends[index] : open.endEpochSecond();
+    }
+
+    // Primer riego que termina después del instante
+    private int firstEndingAfter(long epochSecond) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (endOf(mid) <= epochSecond) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Primer riego que empieza después del instante
+    private int firstStartingAfter(long epochSecond) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (startOf(mid) <= epochSecond) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
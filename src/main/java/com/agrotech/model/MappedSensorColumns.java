@@ -0,0 +1,144 @@
+package com.agrotech.model;
+
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.util.Objects;
+
+// Snapshot mapeado en solo lectura; las lecturas que se agregan después (seguimiento) van a columnas en heap
+public class MappedSensorColumns implements SensorStore {
+    private LongBuffer epochSeconds;
+    private DoubleBuffer soilHumidity;
+    private DoubleBuffer airTemperature;
+    private DoubleBuffer airHumidity;
+    private LongBuffer irrigationBits;
+    private final int mappedSize;
+    private SensorColumns appended;
+    private boolean closed;
+
+    public MappedSensorColumns(LongBuffer epochSeconds, DoubleBuffer soilHumidity, DoubleBuffer airTemperature,
+                               DoubleBuffer airHumidity, LongBuffer irrigationBits, int mappedSize) {
+        this.epochSeconds = epochSeconds;
+        this.soilHumidity = soilHumidity;
+        this.airTemperature = airTemperature;
+        this.airHumidity = airHumidity;
+        this.irrigationBits = irrigationBits;
+        this.mappedSize = mappedSize;
+        this.appended = new SensorColumns();
+    }
+
+    @Override
+    public void accept(long epochSecond, double soilHumidity, double airTemperature,
+                       double airHumidity, boolean irrigationStatus) {
+        ensureOpen();
+        appended.accept(epochSecond, soilHumidity, airTemperature, airHumidity, irrigationStatus);
+    }
+
+    @Override
+    public int size() {
+        return closed ? 0 : mappedSize + appended.size();
+    }
+
+    @Override
+    public long epochSecond(int index) {
+        return checkIndex(index) < mappedSize ? epochSeconds.get(index) : appended.epochSecond(index - mappedSize);
+    }
+
+    @Override
+    public double soilHumidity(int index) {
+        return checkIndex(index) < mappedSize ? soilHumidity.get(index) : appended.soilHumidity(index - mappedSize);
+    }
+
+    @Override
+    public double airTemperature(int index) {
+        return checkIndex(index) < mappedSize ? airTemperature.get(index) : appended.airTemperature(index - mappedSize);
+    }
+
+    @Override
+    public double airHumidity(int index) {
+        return checkIndex(index) < mappedSize ? airHumidity.get(index) : appended.airHumidity(index - mappedSize);
+    }
+
+    @Override
+    public boolean irrigationStatus(int index) {
+        if (checkIndex(index) < mappedSize) {
+            return (irrigationBits.get(index >>> 6) & (1L << index)) != 0;
+        }
+        return appended.irrigationStatus(index - mappedSize);
+    }
+
+    // El snapshot mapeado no cambia; solo se congela la parte agregada
+    @Override
+    public SensorDataset snapshot() {
+        ensureOpen();
+        return new FrozenSnapshot(epochSeconds, soilHumidity, airTemperature, airHumidity, irrigationBits,
+                mappedSize, appended.snapshot());
+    }
+
+    public int getMappedSize() {
+        return mappedSize;
+    }
+
+    // Los mapeos se liberan cuando se recolectan los buffers
+    @Override
+    public void close() {
+        closed = true;
+        epochSeconds = null;
+        soilHumidity = null;
+        airTemperature = null;
+        airHumidity = null;
+        irrigationBits = null;
+        appended = null;
+    }
+
+    private int checkIndex(int index) {
+        ensureOpen();
+        return Objects.checkIndex(index, mappedSize + appended.size());
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("El almacén de sensores ya fue liberado");
+        }
+    }
+
+    private record FrozenSnapshot(LongBuffer epochSeconds, DoubleBuffer soilHumidity, DoubleBuffer airTemperature,
+                                  DoubleBuffer airHumidity, LongBuffer irrigationBits, int mappedSize,
+                                  SensorDataset appended) implements SensorDataset {
+        @Override
+        public int size() {
+            return mappedSize + appended.size();
+        }
+
+        @Override
+        public long epochSecond(int index) {
+            return checkIndex(index) < mappedSize ? epochSeconds.get(index) : appended.epochSecond(index - mappedSize);
+        }
+
+        @Override
+        public double soilHumidity(int index) {
+            return checkIndex(index) < mappedSize ? soilHumidity.get(index) : appended.soilHumidity(index - mappedSize);
+        }
+
+        @Override
+        public double airTemperature(int index) {
+            return checkIndex(index) < mappedSize ? airTemperature.get(index) : appended.airTemperature(index - mappedSize);
+        }
+
+        @Override
+        public double airHumidity(int index) {
+            return checkIndex(index) < mappedSize ? airHumidity.get(index) : appended.airHumidity(index - mappedSize);
+        }
+
+        @Override
+        public boolean irrigationStatus(int index) {
+            if (checkIndex(index) < mappedSize) {
+                return (irrigationBits.get(index >>> 6) & (1L << index)) != 0;
+            }
+            return appended.irrigationStatus(index - mappedSize);
+        }
+
+        private int checkIndex(int index) {
+            return Objects.checkIndex(index, size());
+        }
+    }
+}
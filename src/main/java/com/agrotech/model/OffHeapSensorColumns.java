@@ -0,0 +1,196 @@
+package com.agrotech.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+// Columnas fuera del heap en bloques de tamaño fijo; crecer nunca copia los bloques existentes
+public class OffHeapSensorColumns implements SensorStore {
+    private static final int BLOCK_SHIFT = 20;
+    private static final int BLOCK_ROWS = 1 << BLOCK_SHIFT;
+    private static final int BLOCK_MASK = BLOCK_ROWS - 1;
+    private static final int SOIL_OFFSET = 8 * BLOCK_ROWS;
+    private static final int AIR_TEMPERATURE_OFFSET = 16 * BLOCK_ROWS;
+    private static final int AIR_HUMIDITY_OFFSET = 24 * BLOCK_ROWS;
+    private static final int IRRIGATION_OFFSET = 32 * BLOCK_ROWS;
+    private static final int BLOCK_BYTES = IRRIGATION_OFFSET + BLOCK_ROWS / 8;
+
+    private final FileChannel channel;
+    private final Path backingFile;
+    private ByteBuffer[] blocks;
+    private int blockCount;
+    private int size;
+    private boolean closed;
+
+    private OffHeapSensorColumns(FileChannel channel, Path backingFile) {
+        this.channel = channel;
+        this.backingFile = backingFile;
+        this.blocks = new ByteBuffer[4];
+    }
+
+    public static OffHeapSensorColumns direct() {
+        return new OffHeapSensorColumns(null, null);
+    }
+
+    public static OffHeapSensorColumns fileBacked(Path directory) throws IOException {
+        Path file = Files.createTempFile(directory, "agrotech-sensor-", ".bin");
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+        return new OffHeapSensorColumns(channel, file);
+    }
+
+    @Override
+    public void accept(long epochSecond, double soilHumidity, double airTemperature,
+                       double airHumidity, boolean irrigationStatus) {
+        ensureOpen();
+        if (size == Integer.MAX_VALUE) {
+            throw new IllegalStateException("El almacén alcanzó el número máximo de lecturas");
+        }
+        if ((size >>> BLOCK_SHIFT) == blockCount) {
+            addBlock();
+        }
+
+        ByteBuffer block = blocks[size >>> BLOCK_SHIFT];
+        int row = size & BLOCK_MASK;
+        block.putLong(row << 3, epochSecond);
+        block.putDouble(SOIL_OFFSET + (row << 3), soilHumidity);
+        block.putDouble(AIR_TEMPERATURE_OFFSET + (row << 3), airTemperature);
+        block.putDouble(AIR_HUMIDITY_OFFSET + (row << 3), airHumidity);
+        int bitsIndex = IRRIGATION_OFFSET + (row >>> 3);
+        byte bits = block.get(bitsIndex);
+        block.put(bitsIndex, irrigationStatus ? (byte) (bits | (1 << (row & 7))) : (byte) (bits & ~(1 << (row & 7))));
+        size++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long epochSecond(int index) {
+        return block(index).getLong((index & BLOCK_MASK) << 3);
+    }
+
+    @Override
+    public double soilHumidity(int index) {
+        return block(index).getDouble(SOIL_OFFSET + ((index & BLOCK_MASK) << 3));
+    }
+
+    @Override
+    public double airTemperature(int index) {
+        return block(index).getDouble(AIR_TEMPERATURE_OFFSET + ((index & BLOCK_MASK) << 3));
+    }
+
+    @Override
+    public double airHumidity(int index) {
+        return block(index).getDouble(AIR_HUMIDITY_OFFSET + ((index & BLOCK_MASK) << 3));
+    }
+
+    @Override
+    public boolean irrigationStatus(int index) {
+        int row = index & BLOCK_MASK;
+        return (block(index).get(IRRIGATION_OFFSET + (row >>> 3)) & (1 << (row & 7))) != 0;
+    }
+
+    public StorageMode getStorageMode() {
+        return channel == null ? StorageMode.OFF_HEAP : StorageMode.FILE_BACKED;
+    }
+
+    // Vista de las filas actuales: las filas ya escritas no se mueven y crecer solo reemplaza el arreglo de bloques.
+    // Los buffers directos y mapeados siguen legibles hasta recolectarse, así que la vista sobrevive a close()
+    @Override
+    public SensorDataset snapshot() {
+        ensureOpen();
+        return new FrozenBlocks(blocks, size);
+    }
+
+    // Suelta los bloques y borra el archivo de respaldo. La memoria directa y los mapeos se liberan recién cuando
+    // el GC recolecta los buffers: las versiones ya publicadas pueden seguir leyéndolos después de close(), así
+    // que liberarlos acá dejaría lecturas sobre memoria ya devuelta
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        blocks = null;
+        blockCount = 0;
+        size = 0;
+        if (channel != null) {
+            try {
+                channel.close();
+                Files.deleteIfExists(backingFile);
+            } catch (IOException e) {
+                System.err.println("Error al liberar el almacén de sensores: " + e.getMessage());
+            }
+        }
+    }
+
+    private ByteBuffer block(int index) {
+        ensureOpen();
+        Objects.checkIndex(index, size);
+        return blocks[index >>> BLOCK_SHIFT];
+    }
+
+    private void addBlock() {
+        if (blockCount == blocks.length) {
+            blocks = Arrays.copyOf(blocks, blocks.length * 2);
+        }
+        ByteBuffer block;
+        if (channel == null) {
+            block = ByteBuffer.allocateDirect(BLOCK_BYTES);
+        } else {
+            try {
+                block = channel.map(FileChannel.MapMode.READ_WRITE, (long) blockCount * BLOCK_BYTES, BLOCK_BYTES);
+            } catch (IOException e) {
+                throw new IllegalStateException("No se pudo ampliar el archivo de respaldo: " + e.getMessage(), e);
+            }
+        }
+        blocks[blockCount++] = block.order(ByteOrder.nativeOrder());
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("El almacén de sensores ya fue liberado");
+        }
+    }
+
+    private record FrozenBlocks(ByteBuffer[] blocks, int size) implements SensorDataset {
+        @Override
+        public long epochSecond(int index) {
+            return block(index).getLong((index & BLOCK_MASK) << 3);
+        }
+
+        @Override
+        public double soilHumidity(int index) {
+            return block(index).getDouble(SOIL_OFFSET + ((index & BLOCK_MASK) << 3));
+        }
+
+        @Override
+        public double airTemperature(int index) {
+            return block(index).getDouble(AIR_TEMPERATURE_OFFSET + ((index & BLOCK_MASK) << 3));
+        }
+
+        @Override
+        public double airHumidity(int index) {
+            return block(index).getDouble(AIR_HUMIDITY_OFFSET + ((index & BLOCK_MASK) << 3));
+        }
+
+        @Override
+        public boolean irrigationStatus(int index) {
+            int row = index & BLOCK_MASK;
+            return (block(index).get(IRRIGATION_OFFSET + (row >>> 3)) & (1 << (row & 7))) != 0;
+        }
+
+        private ByteBuffer block(int index) {
+            return blocks[Objects.checkIndex(index, size) >>> BLOCK_SHIFT];
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.agrotech.model;
+
+public enum OverflowPolicy {
+    // El productor espera a que haya lugar; un lector de socket transmite la espera al emisor
+    BLOCK("Esperar"),
+    // Se sobrescribe la lectura más antigua sin consumir
+    DROP_OLDEST("Descartar las más antiguas"),
+    // Se descarta la lectura nueva y se cuenta
+    COUNT_DROPS("Descartar y contar");
+
+    private final String displayName;
+
+    OverflowPolicy(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,34 @@
+package com.agrotech.model;
+
+// Columnas de la tabla de lecturas; las numéricas se corresponden con un canal del sensor
+public enum ReadingColumn {
+    TIMESTAMP("Fecha y hora", null),
+    SOIL_HUMIDITY("Humedad del suelo (%)", SensorChannel.SOIL_HUMIDITY),
+    AIR_TEMPERATURE("Temperatura del aire (°C)", SensorChannel.AIR_TEMPERATURE),
+    AIR_HUMIDITY("Humedad del aire (%)", SensorChannel.AIR_HUMIDITY),
+    IRRIGATION("Riego", null);
+
+    private final String displayName;
+    private final SensorChannel channel;
+
+    ReadingColumn(String displayName, SensorChannel channel) {
+        this.displayName = displayName;
+        this.channel = channel;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public SensorChannel getChannel() {
+        return channel;
+    }
+
+    public String format(SensorDataset data, int row) {
+        return switch (this) {
+            case TIMESTAMP -> data.timestamp(row).format(SensorTimestamp.FORMATTER);
+            case IRRIGATION -> data.irrigationStatus(row) ? "Activo" : "Inactivo";
+            default -> String.format("%.2f", channel.valueOf(data, row));
+        };
+    }
+}
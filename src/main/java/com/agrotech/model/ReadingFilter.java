@@ -0,0 +1,32 @@
+package com.agrotech.model;
+
+// Rango cerrado sobre un canal; los límites infinitos no restringen
+public record ReadingFilter(
+        SensorChannel channel,
+        double min,
+        double max,
+        boolean irrigationOnly
+) {
+    public static final ReadingFilter NONE = new ReadingFilter(SensorChannel.SOIL_HUMIDITY,
+            Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, false);
+
+    public boolean isEmpty() {
+        return !irrigationOnly && min == Double.NEGATIVE_INFINITY && max == Double.POSITIVE_INFINITY;
+    }
+
+    public boolean matches(SensorDataset data, int row) {
+        if (irrigationOnly && !data.irrigationStatus(row)) {
+            return false;
+        }
+        double value = channel.valueOf(data, row);
+        return value >= min && value <= max;
+    }
+
+    public boolean matches(double soilHumidity, double airTemperature, double airHumidity, boolean irrigationStatus) {
+        if (irrigationOnly && !irrigationStatus) {
+            return false;
+        }
+        double value = channel.valueOf(soilHumidity, airTemperature, airHumidity);
+        return value >= min && value <= max;
+    }
+}
@@ -0,0 +1,109 @@
+package com.agrotech.model;
+
+import java.util.Objects;
+
+// Vista inmutable de un nivel de agregados: los buckets cerrados se leen de los arreglos compartidos
+// con SensorRollup y el último, todavía abierto, de su copia
+public final class RollupSeries {
+    private final RollupTier tier;
+    private final long[] starts;
+    private final int[] counts;
+    private final int[] irrigated;
+    private final double[] stats;
+    private final int closed;
+    private final long openStart;
+    private final int openCount;
+    private final int openIrrigated;
+    private final double[] openStats;
+
+    RollupSeries(RollupTier tier, long[] starts, int[] counts, int[] irrigated, double[] stats, int closed,
+                 long openStart, int openCount, int openIrrigated, double[] openStats) {
+        this.tier = tier;
+        this.starts = starts;
+        this.counts = counts;
+        this.irrigated = irrigated;
+        this.stats = stats;
+        this.closed = closed;
+        this.openStart = openStart;
+        this.openCount = openCount;
+        this.openIrrigated = openIrrigated;
+        this.openStats = openStats;
+    }
+
+    public RollupTier getTier() {
+        return tier;
+    }
+
+    public int size() {
+        return openCount > 0 ? closed + 1 : closed;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public long bucketStart(int index) {
+        return checkIndex(index) < closed ? starts[index] : openStart;
+    }
+
+    // Lecturas del bucket, incluidas las que tenían algún valor no finito
+    public int count(int index) {
+        return checkIndex(index) < closed ? counts[index] : openCount;
+    }
+
+    // Lecturas del bucket con un valor finito en el canal
+    public int count(SensorChannel channel, int index) {
+        return (int) stat(channel, index, SensorRollup.COUNT);
+    }
+
+    public double min(SensorChannel channel, int index) {
+        return stat(channel, index, SensorRollup.MIN);
+    }
+
+    public double max(SensorChannel channel, int index) {
+        return stat(channel, index, SensorRollup.MAX);
+    }
+
+    public double sum(SensorChannel channel, int index) {
+        return stat(channel, index, SensorRollup.SUM);
+    }
+
+    public double last(SensorChannel channel, int index) {
+        return stat(channel, index, SensorRollup.LAST);
+    }
+
+    public double mean(SensorChannel channel, int index) {
+        return sum(channel, index) / count(channel, index);
+    }
+
+    // Fracción de lecturas del bucket con el riego encendido
+    public double irrigationDutyCycle(int index) {
+        int irrigatedCount = checkIndex(index) < closed ? irrigated[index] : openIrrigated;
+        return (double) irrigatedCount / count(index);
+    }
+
+    // Primer bucket que empieza en o después del bucket que contiene el instante
+    public int lowerBound(long epochSecond) {
+        long start = tier.bucketStart(epochSecond);
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bucketStart(mid) < start) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private double stat(SensorChannel channel, int index, int stat) {
+        int offset = channel.ordinal() * SensorRollup.STATS_PER_CHANNEL + stat;
+        return checkIndex(index) < closed ? stats[index * SensorRollup.STRIDE + offset] : openStats[offset];
+    }
+
+    private int checkIndex(int index) {
+        return Objects.checkIndex(index, size());
+    }
+}
@@ -0,0 +1,28 @@
+package com.agrotech.model;
+
+public enum RollupTier {
+    MINUTE(60, "Minuto"),
+    HOUR(3_600, "Hora"),
+    DAY(86_400, "Día");
+
+    private final long seconds;
+    private final String displayName;
+
+    RollupTier(long seconds, String displayName) {
+        this.seconds = seconds;
+        this.displayName = displayName;
+    }
+
+    public long getSeconds() {
+        return seconds;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    // Inicio del bucket que contiene el instante, alineado en UTC
+    public long bucketStart(long epochSecond) {
+        return Math.floorDiv(epochSecond, seconds) * seconds;
+    }
+}
@@ -0,0 +1,271 @@
+package com.agrotech.model;
+
+import java.util.Arrays;
+
+// Codificación de bloques de hasta 1024 filas que se decodifican de forma independiente, al estilo Gorilla:
+//   timestamps  el primero completo y después delta de deltas con prefijos de largo variable; con lecturas
+//               a intervalo fijo cada fila ocupa un bit
+//   canales     el primer valor completo y después XOR con el anterior: un bit si no cambió, y si cambió solo
+//               los bits significativos, reutilizando la ventana de ceros anterior cuando entra en ella
+//   riego       estado inicial, cantidad de cambios y la posición de cada cambio dentro del bloque
+// Los bits se escriben en long[] de izquierda a derecha
+public final class SensorBlockCodec {
+    public static final int BLOCK_ROWS = 1024;
+    private static final int POSITION_BITS = 10;
+    private static final int TOGGLE_COUNT_BITS = 11;
+
+    private SensorBlockCodec() {}
+
+    public static long[] encode(SensorDataset data, int from, int to) {
+        if (to - from < 1 || to - from > BLOCK_ROWS) {
+            throw new IllegalArgumentException("Un bloque debe tener entre 1 y " + BLOCK_ROWS + " filas");
+        }
+        BitWriter out = new BitWriter((to - from) * 2);
+        encodeTimestamps(data, from, to, out);
+        for (SensorChannel channel : SensorChannel.values()) {
+            encodeValues(data, channel, from, to, out);
+        }
+        encodeIrrigation(data, from, to, out);
+        return out.toArray();
+    }
+
+    public static void decode(long[] words, int rows, DecodedBlock target) {
+        BitReader in = new BitReader(words);
+        long epochSecond = in.read(64);
+        long delta = 0;
+        target.epochSeconds[0] = epochSecond;
+        for (int i = 1; i < rows; i++) {
+            delta += readDeltaOfDelta(in);
+            epochSecond += delta;
+            target.epochSeconds[i] = epochSecond;
+        }
+        decodeValues(in, rows, target.soilHumidity);
+        decodeValues(in, rows, target.airTemperature);
+        decodeValues(in, rows, target.airHumidity);
+
+        Arrays.fill(target.irrigationBits, 0);
+        boolean state = in.read(1) == 1;
+        int toggles = (int) in.read(TOGGLE_COUNT_BITS);
+        int row = 0;
+        for (int t = 0; t <= toggles; t++) {
+            int next = t < toggles ? (int) in.read(POSITION_BITS) : rows;
+            if (state) {
+                for (int i = row; i < next; i++) {
+                    target.irrigationBits[i >>> 6] |= 1L << i;
+                }
+            }
+            row = next;
+            state = !state;
+        }
+        target.rows = rows;
+    }
+
+    private static void encodeTimestamps(SensorDataset data, int from, int to, BitWriter out) {
+        long previous = data.epochSecond(from);
+        long previousDelta = 0;
+        out.write(previous, 64);
+        for (int i = from + 1; i < to; i++) {
+            long epochSecond = data.epochSecond(i);
+            long delta = epochSecond - previous;
+            long deltaOfDelta = delta - previousDelta;
+            if (deltaOfDelta == 0) {
+                out.write(0, 1);
+            } else if (fits(deltaOfDelta, 7)) {
+                out.write(0b10, 2);
+                out.write(deltaOfDelta, 7);
+            } else if (fits(deltaOfDelta, 9)) {
+                out.write(0b110, 3);
+                out.write(deltaOfDelta, 9);
+            } else if (fits(deltaOfDelta, 12)) {
+                out.write(0b1110, 4);
+                out.write(deltaOfDelta, 12);
+            } else if (fits(deltaOfDelta, 32)) {
+                out.write(0b11110, 5);
+                out.write(deltaOfDelta, 32);
+            } else {
+                out.write(0b11111, 5);
+                out.write(deltaOfDelta, 64);
+            }
+            previousDelta = delta;
+            previous = epochSecond;
+        }
+    }
+
+    private static long readDeltaOfDelta(BitReader in) {
+        int prefix = 0;
+        while (prefix < 5 && in.read(1) == 1) {
+            prefix++;
+        }
+        return switch (prefix) {
+            case 0 -> 0;
+            case 1 -> in.readSigned(7);
+            case 2 -> in.readSigned(9);
+            case 3 -> in.readSigned(12);
+            case 4 -> in.readSigned(32);
+            default -> in.read(64);
+        };
+    }
+
+    // Se codifican los bits crudos del double, así que NaN y -0.0 vuelven exactamente iguales
+    private static void encodeValues(SensorDataset data, SensorChannel channel, int from, int to, BitWriter out) {
+        long previous = Double.doubleToRawLongBits(channel.valueOf(data, from));
+        out.write(previous, 64);
+        int previousLeading = -1;
+        int previousTrailing = 0;
+        for (int i = from + 1; i < to; i++) {
+            long bits = Double.doubleToRawLongBits(channel.valueOf(data, i));
+            long xor = bits ^ previous;
+            if (xor == 0) {
+                out.write(0, 1);
+            } else {
+                int leading = Math.min(31, Long.numberOfLeadingZeros(xor));
+                int trailing = Long.numberOfTrailingZeros(xor);
+                if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                    out.write(0b10, 2);
+                    out.write(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+                } else {
+                    int significant = 64 - leading - trailing;
+                    out.write(0b11, 2);
+                    out.write(leading, 5);
+                    out.write(significant - 1, 6);
+                    out.write(xor >>> trailing, significant);
+                    previousLeading = leading;
+                    previousTrailing = trailing;
+                }
+            }
+            previous = bits;
+        }
+    }
+
+    private static void decodeValues(BitReader in, int rows, double[] target) {
+        long previous = in.read(64);
+        target[0] = Double.longBitsToDouble(previous);
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 1; i < rows; i++) {
+            if (in.read(1) == 1) {
+                if (in.read(1) == 1) {
+                    leading = (int) in.read(5);
+                    int significant = (int) in.read(6) + 1;
+                    trailing = 64 - leading - significant;
+                }
+                previous ^= in.read(64 - leading - trailing) << trailing;
+            }
+            target[i] = Double.longBitsToDouble(previous);
+        }
+    }
+
+    private static void encodeIrrigation(SensorDataset data, int from, int to, BitWriter out) {
+        boolean state = data.irrigationStatus(from);
+        int toggles = 0;
+        for (int i = from + 1; i < to; i++) {
+            if (data.irrigationStatus(i) != data.irrigationStatus(i - 1)) {
+                toggles++;
+            }
+        }
+        out.write(state ? 1 : 0, 1);
+        out.write(toggles, TOGGLE_COUNT_BITS);
+        for (int i = from + 1; i < to; i++) {
+            if (data.irrigationStatus(i) != data.irrigationStatus(i - 1)) {
+                out.write(i - from, POSITION_BITS);
+            }
+        }
+    }
+
+    private static boolean fits(long value, int bits) {
+        long limit = 1L << (bits - 1);
+        return value >= -limit && value < limit;
+    }
+
+    // Filas de un bloque ya decodificado; se reutiliza al recorrer bloque por bloque
+    public static final class DecodedBlock {
+        final long[] epochSeconds = new long[BLOCK_ROWS];
+        final double[] soilHumidity = new double[BLOCK_ROWS];
+        final double[] airTemperature = new double[BLOCK_ROWS];
+        final double[] airHumidity = new double[BLOCK_ROWS];
+        final long[] irrigationBits = new long[BLOCK_ROWS / 64];
+        int rows;
+
+        public int rows() {
+            return rows;
+        }
+
+        public long epochSecond(int row) {
+            return epochSeconds[row];
+        }
+
+        public double soilHumidity(int row) {
+            return soilHumidity[row];
+        }
+
+        public double airTemperature(int row) {
+            return airTemperature[row];
+        }
+
+        public double airHumidity(int row) {
+            return airHumidity[row];
+        }
+
+        public boolean irrigationStatus(int row) {
+            return (irrigationBits[row >>> 6] & (1L << row)) != 0;
+        }
+    }
+
+    private static final class BitWriter {
+        private long[] words;
+        private long position;
+
+        BitWriter(int expectedBits) {
+            this.words = new long[Math.max(4, (expectedBits + 63) >>> 6)];
+        }
+
+        // Escribe los n bits bajos de value, con 1 <= n <= 64
+        void write(long value, int n) {
+            long masked = n == 64 ? value : value & ((1L << n) - 1);
+            int word = (int) (position >>> 6);
+            int free = 64 - (int) (position & 63);
+            if (word + 1 >= words.length) {
+                words = Arrays.copyOf(words, words.length * 2);
+            }
+            if (n <= free) {
+                words[word] |= masked << (free - n);
+            } else {
+                words[word] |= masked >>> (n - free);
+                words[word + 1] |= masked << (64 - (n - free));
+            }
+            position += n;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(words, (int) ((position + 63) >>> 6));
+        }
+    }
+
+    private static final class BitReader {
+        private final long[] words;
+        private long position;
+
+        BitReader(long[] words) {
+            this.words = words;
+        }
+
+        long read(int n) {
+            int word = (int) (position >>> 6);
+            int offset = (int) (position & 63);
+            int available = 64 - offset;
+            long value;
+            if (n <= available) {
+                value = (words[word] << offset) >>> (64 - n);
+            } else {
+                long high = (words[word] << offset) >>> (64 - n);
+                value = high | (words[word + 1] >>> (64 - (n - available)));
+            }
+            position += n;
+            return value;
+        }
+
+        long readSigned(int n) {
+            return (read(n) << (64 - n)) >> (64 - n);
+        }
+    }
+}
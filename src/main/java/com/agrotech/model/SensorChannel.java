@@ -0,0 +1,33 @@
+package com.agrotech.model;
+
+public enum SensorChannel {
+    SOIL_HUMIDITY("Humedad del suelo"),
+    AIR_TEMPERATURE("Temperatura del aire"),
+    AIR_HUMIDITY("Humedad del aire");
+
+    private final String displayName;
+
+    SensorChannel(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public double valueOf(SensorDataset data, int index) {
+        return switch (this) {
+            case SOIL_HUMIDITY -> data.soilHumidity(index);
+            case AIR_TEMPERATURE -> data.airTemperature(index);
+            case AIR_HUMIDITY -> data.airHumidity(index);
+        };
+    }
+
+    public double valueOf(double soilHumidity, double airTemperature, double airHumidity) {
+        return switch (this) {
+            case SOIL_HUMIDITY -> soilHumidity;
+            case AIR_TEMPERATURE -> airTemperature;
+            case AIR_HUMIDITY -> airHumidity;
+        };
+    }
+}
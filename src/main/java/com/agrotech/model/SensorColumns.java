@@ -0,0 +1,158 @@
+package com.agrotech.model;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+public class SensorColumns implements SensorStore {
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private long[] epochSeconds;
+    private double[] soilHumidity;
+    private double[] airTemperature;
+    private double[] airHumidity;
+    private long[] irrigationBits;
+    private int size;
+
+    public SensorColumns() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SensorColumns(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        this.epochSeconds = new long[capacity];
+        this.soilHumidity = new double[capacity];
+        this.airTemperature = new double[capacity];
+        this.airHumidity = new double[capacity];
+        this.irrigationBits = new long[wordsFor(capacity)];
+    }
+
+    @Override
+    public void accept(long epochSecond, double soilHumidity, double airTemperature,
+                       double airHumidity, boolean irrigationStatus) {
+        ensureCapacity(size + 1);
+        this.epochSeconds[size] = epochSecond;
+        this.soilHumidity[size] = soilHumidity;
+        this.airTemperature[size] = airTemperature;
+        this.airHumidity[size] = airHumidity;
+        if (irrigationStatus) {
+            irrigationBits[size >>> 6] |= 1L << size;
+        }
+        size++;
+    }
+
+    public void appendAll(SensorColumns other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.epochSeconds, 0, epochSeconds, size, other.size);
+        System.arraycopy(other.soilHumidity, 0, soilHumidity, size, other.size);
+        System.arraycopy(other.airTemperature, 0, airTemperature, size, other.size);
+        System.arraycopy(other.airHumidity, 0, airHumidity, size, other.size);
+        for (int i = 0; i < other.size; i++) {
+            if (other.irrigationStatus(i)) {
+                irrigationBits[(size + i) >>> 6] |= 1L << (size + i);
+            }
+        }
+        size += other.size;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long epochSecond(int index) {
+        return epochSeconds[checkIndex(index)];
+    }
+
+    @Override
+    public double soilHumidity(int index) {
+        return soilHumidity[checkIndex(index)];
+    }
+
+    @Override
+    public double airTemperature(int index) {
+        return airTemperature[checkIndex(index)];
+    }
+
+    @Override
+    public double airHumidity(int index) {
+        return airHumidity[checkIndex(index)];
+    }
+
+    @Override
+    public boolean irrigationStatus(int index) {
+        return (irrigationBits[checkIndex(index) >>> 6] & (1L << index)) != 0;
+    }
+
+    @Override
+    public void forEach(int from, int to, SensorRowSink visitor) {
+        Objects.checkFromToIndex(from, to, size);
+        for (int i = from; i < to; i++) {
+            visitor.accept(epochSeconds[i], soilHumidity[i], airTemperature[i], airHumidity[i],
+                    (irrigationBits[i >>> 6] & (1L << i)) != 0);
+        }
+    }
+
+    // Las escrituras solo tocan filas >= size o arreglos nuevos al crecer, así que la vista comparte los arreglos
+    @Override
+    public SensorDataset snapshot() {
+        return new FrozenColumns(epochSeconds, soilHumidity, airTemperature, airHumidity, irrigationBits, size);
+    }
+
+    private int checkIndex(int index) {
+        return Objects.checkIndex(index, size);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= epochSeconds.length) {
+            return;
+        }
+        int capacity = Math.max(required, epochSeconds.length + (epochSeconds.length >> 1));
+        epochSeconds = Arrays.copyOf(epochSeconds, capacity);
+        soilHumidity = Arrays.copyOf(soilHumidity, capacity);
+        airTemperature = Arrays.copyOf(airTemperature, capacity);
+        airHumidity = Arrays.copyOf(airHumidity, capacity);
+        irrigationBits = Arrays.copyOf(irrigationBits, wordsFor(capacity));
+    }
+
+    private static int wordsFor(int capacity) {
+        return (capacity + 63) >>> 6;
+    }
+
+    private record FrozenColumns(long[] epochSeconds, double[] soilHumidity, double[] airTemperature,
+                                 double[] airHumidity, long[] irrigationBits, int size) implements SensorDataset {
+        @Override
+        public long epochSecond(int index) {
+            return epochSeconds[Objects.checkIndex(index, size)];
+        }
+
+        @Override
+        public double soilHumidity(int index) {
+            return soilHumidity[Objects.checkIndex(index, size)];
+        }
+
+        @Override
+        public double airTemperature(int index) {
+            return airTemperature[Objects.checkIndex(index, size)];
+        }
+
+        @Override
+        public double airHumidity(int index) {
+            return airHumidity[Objects.checkIndex(index, size)];
+        }
+
+        @Override
+        public boolean irrigationStatus(int index) {
+            return (irrigationBits[Objects.checkIndex(index, size) >>> 6] & (1L << index)) != 0;
+        }
+
+        @Override
+        public void forEach(int from, int to, SensorRowSink visitor) {
+            Objects.checkFromToIndex(from, to, size);
+            for (int i = from; i < to; i++) {
+                visitor.accept(epochSeconds[i], soilHumidity[i], airTemperature[i], airHumidity[i],
+                        (irrigationBits[i >>> 6] & (1L << i)) != 0);
+            }
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.agrotech.model;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 public record SensorData(
         LocalDateTime timestamp,
@@ -10,17 +9,39 @@ public record SensorData(
         double airHumidity,
         boolean irrigationStatus
 ) {
-    private static final DateTimeFormatter FORMATTER =
-            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-
     public static SensorData fromCsvLine(String line) {
         String[] parts = line.split(",");
         return new SensorData(
-                LocalDateTime.parse(parts[0].trim(), FORMATTER),
+                SensorTimestamp.toLocalDateTime(SensorTimestamp.parseEpochSecond(parts[0])),
                 Double.parseDouble(parts[1].trim()),
                 Double.parseDouble(parts[2].trim()),
                 Double.parseDouble(parts[3].trim()),
                 "1".equals(parts[4].trim())
         );
     }
-}
\ No newline at end of file
+
+    public static SensorData fromCsvFields(String[] parts, ColumnMapping mapping) {
+        return new SensorData(
+                SensorTimestamp.toLocalDateTime(SensorTimestamp.parseEpochSecond(parts[mapping.columnOf(ColumnMapping.TIMESTAMP)])),
+                Double.parseDouble(parts[mapping.columnOf(ColumnMapping.SOIL_HUMIDITY)].trim()),
+                Double.parseDouble(parts[mapping.columnOf(ColumnMapping.AIR_TEMPERATURE)].trim()),
+                Double.parseDouble(parts[mapping.columnOf(ColumnMapping.AIR_HUMIDITY)].trim()),
+                "1".equals(parts[mapping.columnOf(ColumnMapping.IRRIGATION_STATUS)].trim())
+        );
+    }
+
+    public static SensorData fromEpoch(long epochSecond, double soilHumidity, double airTemperature,
+                                       double airHumidity, boolean irrigationStatus) {
+        return new SensorData(
+                SensorTimestamp.toLocalDateTime(epochSecond),
+                soilHumidity,
+                airTemperature,
+                airHumidity,
+                irrigationStatus
+        );
+    }
+
+    public long epochSecond() {
+        return SensorTimestamp.toEpochSecond(timestamp);
+    }
+}
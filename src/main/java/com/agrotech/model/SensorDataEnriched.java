@@ -20,8 +20,8 @@ public record SensorDataEnriched(
                 basic.airHumidity(),
                 basic.irrigationStatus(),
                 null,
-                new WaterData(basic.airTemperature(), "°C", 0.0, "L"), // valores por defecto
-                50.0
+                WaterData.defaultFor(basic.airTemperature()),
+                SensorEnrichment.DEFAULT_IRRIGATION_LEVEL
         );
     }
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.agrotech.model;
+
+import java.time.LocalDateTime;
+
+public interface SensorDataset {
+    int size();
+
+    long epochSecond(int index);
+
+    double soilHumidity(int index);
+
+    double airTemperature(int index);
+
+    double airHumidity(int index);
+
+    boolean irrigationStatus(int index);
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    default LocalDateTime timestamp(int index) {
+        return SensorTimestamp.toLocalDateTime(epochSecond(index));
+    }
+
+    default SensorData get(int index) {
+        return SensorData.fromEpoch(epochSecond(index), soilHumidity(index),
+                airTemperature(index), airHumidity(index), irrigationStatus(index));
+    }
+
+    default void forEach(SensorRowSink visitor) {
+        forEach(0, size(), visitor);
+    }
+
+    // Recorre las filas [from, to) entregando valores primitivos, sin crear objetos por lectura
+    default void forEach(int from, int to, SensorRowSink visitor) {
+        for (int i = from; i < to; i++) {
+            visitor.accept(epochSecond(i), soilHumidity(i), airTemperature(i),
+                    airHumidity(i), irrigationStatus(i));
+        }
+    }
+}
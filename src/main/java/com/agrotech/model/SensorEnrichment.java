@@ -0,0 +1,29 @@
+package com.agrotech.model;
+
+// Datos agregados a mano sobre lecturas puntuales (cultivo, agua, nivel de riego). Las lecturas sin override
+// usan los valores por defecto, que se calculan recién al pedirlos
+public record SensorEnrichment(
+        SparseOverrides<String> cropTypes,
+        SparseOverrides<WaterData> waterData,
+        SparseOverrides<Double> irrigationLevels
+) {
+    public static final double DEFAULT_IRRIGATION_LEVEL = 50.0;
+    public static final SensorEnrichment NONE = new SensorEnrichment(
+            SparseOverrides.empty(), SparseOverrides.empty(), SparseOverrides.empty());
+
+    public SensorEnrichment withCropType(long epochSecond, String cropType) {
+        return new SensorEnrichment(cropTypes.with(epochSecond, cropType), waterData, irrigationLevels);
+    }
+
+    public SensorEnrichment withWaterData(long epochSecond, WaterData data) {
+        return new SensorEnrichment(cropTypes, waterData.with(epochSecond, data), irrigationLevels);
+    }
+
+    public SensorEnrichment withIrrigationLevel(long epochSecond, Double level) {
+        return new SensorEnrichment(cropTypes, waterData, irrigationLevels.with(epochSecond, level));
+    }
+
+    public int size() {
+        return cropTypes.size() + waterData.size() + irrigationLevels.size();
+    }
+}
@@ -0,0 +1,50 @@
+package com.agrotech.model;
+
+import java.io.File;
+
+public enum SensorFileFormat {
+    CSV(".csv", 1),
+    GZIP(".csv.gz", 8),
+    ZIP(".zip", 8);
+
+    private final String extension;
+    // Relación típica entre el CSV descomprimido y el archivo en disco
+    private final int expansionFactor;
+
+    SensorFileFormat(String extension, int expansionFactor) {
+        this.extension = extension;
+        this.expansionFactor = expansionFactor;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public boolean isCompressed() {
+        return this != CSV;
+    }
+
+    public long estimateUncompressedSize(long fileSize) {
+        return fileSize * expansionFactor;
+    }
+
+    public static boolean isSupported(File file) {
+        String name = file.getName().toLowerCase();
+        for (SensorFileFormat format : values()) {
+            if (name.endsWith(format.extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static SensorFileFormat of(File file) {
+        String name = file.getName().toLowerCase();
+        for (SensorFileFormat format : values()) {
+            if (name.endsWith(format.extension)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Formato de archivo no soportado: " + file.getName());
+    }
+}
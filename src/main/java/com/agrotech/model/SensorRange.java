@@ -0,0 +1,46 @@
+package com.agrotech.model;
+
+import java.util.Objects;
+
+// Vista de las filas [from, to) de otro dataset; no copia datos
+public record SensorRange(SensorDataset source, int from, int to) implements SensorDataset {
+    public SensorRange {
+        Objects.checkFromToIndex(from, to, source.size());
+    }
+
+    @Override
+    public int size() {
+        return to - from;
+    }
+
+    @Override
+    public long epochSecond(int index) {
+        return source.epochSecond(from + Objects.checkIndex(index, size()));
+    }
+
+    @Override
+    public double soilHumidity(int index) {
+        return source.soilHumidity(from + Objects.checkIndex(index, size()));
+    }
+
+    @Override
+    public double airTemperature(int index) {
+        return source.airTemperature(from + Objects.checkIndex(index, size()));
+    }
+
+    @Override
+    public double airHumidity(int index) {
+        return source.airHumidity(from + Objects.checkIndex(index, size()));
+    }
+
+    @Override
+    public boolean irrigationStatus(int index) {
+        return source.irrigationStatus(from + Objects.checkIndex(index, size()));
+    }
+
+    @Override
+    public void forEach(int from, int to, SensorRowSink visitor) {
+        Objects.checkFromToIndex(from, to, size());
+        source.forEach(this.from + from, this.from + to, visitor);
+    }
+}
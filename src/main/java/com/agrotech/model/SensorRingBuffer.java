@@ -0,0 +1,164 @@
+package com.agrotech.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Buffer circular sin locks con slots primitivos preasignados: varios productores (lectores de sensores) y un
+// único consumidor. Cada slot se publica escribiendo su número de secuencia con semántica release; el
+// consumidor lee el slot solo cuando ve publicada la secuencia que espera. No se asigna memoria por lectura
+public class SensorRingBuffer implements SensorRowSink {
+    private static final VarHandle SEQUENCES = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int SPINS_BEFORE_PARK = 100;
+    private static final long PARK_NANOS = 50_000;
+
+    private final int mask;
+    private final long[] published;
+    private final long[] epochSeconds;
+    private final double[] soilHumidity;
+    private final double[] airTemperature;
+    private final double[] airHumidity;
+    private final boolean[] irrigationStatus;
+    private final OverflowPolicy policy;
+
+    // Próxima secuencia a reclamar por un productor y próxima a consumir
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+
+    public SensorRingBuffer(int capacity, OverflowPolicy policy) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("La capacidad debe ser una potencia de 2");
+        }
+        this.mask = capacity - 1;
+        this.policy = policy;
+        this.published = new long[capacity];
+        this.epochSeconds = new long[capacity];
+        this.soilHumidity = new double[capacity];
+        this.airTemperature = new double[capacity];
+        this.airHumidity = new double[capacity];
+        this.irrigationStatus = new boolean[capacity];
+        for (int slot = 0; slot < capacity; slot++) {
+            published[slot] = slot - (long) capacity;
+        }
+    }
+
+    // Lado productor: puede llamarse desde varios hilos a la vez
+    @Override
+    public void accept(long epochSecond, double soilHumidity, double airTemperature,
+                       double airHumidity, boolean irrigationStatus) {
+        long sequence = claim();
+        if (sequence < 0) {
+            return;
+        }
+
+        int slot = (int) sequence & mask;
+        this.epochSeconds[slot] = epochSecond;
+        this.soilHumidity[slot] = soilHumidity;
+        this.airTemperature[slot] = airTemperature;
+        this.airHumidity[slot] = airHumidity;
+        this.irrigationStatus[slot] = irrigationStatus;
+        SEQUENCES.setRelease(published, slot, sequence);
+    }
+
+    // Devuelve la secuencia reclamada, o -1 si la lectura se descartó
+    private long claim() {
+        int capacity = mask + 1;
+        switch (policy) {
+            case BLOCK -> {
+                long sequence = claimed.getAndIncrement();
+                int spins = 0;
+                while (sequence - consumed.get() >= capacity) {
+                    spins = backOff(spins);
+                }
+                return sequence;
+            }
+            case DROP_OLDEST -> {
+                long sequence = claimed.getAndIncrement();
+                int spins = 0;
+                while (true) {
+                    long oldest = consumed.get();
+                    if (sequence - oldest < capacity) {
+                        return sequence;
+                    }
+                    // Solo se puede descartar una lectura ya publicada; si aún se escribe, se espera
+                    if ((long) SEQUENCES.getAcquire(published, (int) oldest & mask) == oldest) {
+                        if (consumed.compareAndSet(oldest, oldest + 1)) {
+                            dropped.increment();
+                        }
+                    } else {
+                        spins = backOff(spins);
+                    }
+                }
+            }
+            default -> {
+                while (true) {
+                    long sequence = claimed.get();
+                    if (sequence - consumed.get() >= capacity) {
+                        dropped.increment();
+                        return -1;
+                    }
+                    if (claimed.compareAndSet(sequence, sequence + 1)) {
+                        return sequence;
+                    }
+                }
+            }
+        }
+    }
+
+    // Lado consumidor (un solo hilo): entrega hasta maxRows lecturas publicadas, en orden de secuencia
+    public int drainTo(SensorRowSink sink, int maxRows) {
+        int drained = 0;
+        while (drained < maxRows) {
+            long sequence = consumed.get();
+            int slot = (int) sequence & mask;
+            if ((long) SEQUENCES.getAcquire(published, slot) != sequence) {
+                break;
+            }
+
+            long epochSecond = epochSeconds[slot];
+            double soil = soilHumidity[slot];
+            double temperature = airTemperature[slot];
+            double humidity = airHumidity[slot];
+            boolean irrigation = irrigationStatus[slot];
+            // Con DROP_OLDEST un productor pudo descartar este slot mientras se leía: se descarta la copia
+            if (!consumed.compareAndSet(sequence, sequence + 1)) {
+                continue;
+            }
+            sink.accept(epochSecond, soil, temperature, humidity, irrigation);
+            drained++;
+        }
+        return drained;
+    }
+
+    public int drainTo(SensorRowSink sink) {
+        return drainTo(sink, Integer.MAX_VALUE);
+    }
+
+    public int size() {
+        return (int) Math.max(0, Math.min(mask + 1, claimed.get() - consumed.get()));
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    private static int backOff(int spins) {
+        if (spins < SPINS_BEFORE_PARK) {
+            Thread.onSpinWait();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        return spins + 1;
+    }
+}
@@ -0,0 +1,105 @@
+package com.agrotech.model;
+
+import java.util.Arrays;
+
+// Agregados de un nivel mantenidos fila por fila. Las filas deben llegar ordenadas por timestamp: los buckets
+// cerrados solo se agregan al final de los arreglos y el bucket abierto vive aparte, así que snapshot() comparte
+// los arreglos y copia únicamente el bucket abierto. Los valores no finitos no entran en los agregados: cada
+// canal lleva su propia cuenta, y un canal sin valores válidos en el bucket queda en NaN
+public final class SensorRollup implements SensorRowSink {
+    static final int MIN = 0;
+    static final int MAX = 1;
+    static final int SUM = 2;
+    static final int LAST = 3;
+    static final int COUNT = 4;
+    static final int STATS_PER_CHANNEL = 5;
+    static final int STRIDE = STATS_PER_CHANNEL * 3;
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private final RollupTier tier;
+    private long[] starts;
+    private int[] counts;
+    private int[] irrigated;
+    private double[] stats;
+    private int closed;
+
+    private long openStart;
+    private int openCount;
+    private int openIrrigated;
+    private final double[] openStats;
+
+    public SensorRollup(RollupTier tier) {
+        this.tier = tier;
+        this.starts = new long[DEFAULT_CAPACITY];
+        this.counts = new int[DEFAULT_CAPACITY];
+        this.irrigated = new int[DEFAULT_CAPACITY];
+        this.stats = new double[DEFAULT_CAPACITY * STRIDE];
+        this.openStats = new double[STRIDE];
+    }
+
+    @Override
+    public void accept(long epochSecond, double soilHumidity, double airTemperature,
+                       double airHumidity, boolean irrigationStatus) {
+        long start = tier.bucketStart(epochSecond);
+        if (openCount > 0 && start != openStart) {
+            closeOpenBucket();
+        }
+        if (openCount == 0) {
+            openStart = start;
+            for (int offset = 0; offset < STRIDE; offset += STATS_PER_CHANNEL) {
+                Arrays.fill(openStats, offset, offset + COUNT, Double.NaN);
+                openStats[offset + COUNT] = 0;
+            }
+        }
+        add(0, soilHumidity);
+        add(STATS_PER_CHANNEL, airTemperature);
+        add(2 * STATS_PER_CHANNEL, airHumidity);
+        openCount++;
+        if (irrigationStatus) {
+            openIrrigated++;
+        }
+    }
+
+    public RollupTier getTier() {
+        return tier;
+    }
+
+    public RollupSeries snapshot() {
+        return new RollupSeries(tier, starts, counts, irrigated, stats, closed,
+                openStart, openCount, openIrrigated, openStats.clone());
+    }
+
+    private void add(int offset, double value) {
+        if (!Double.isFinite(value)) {
+            return;
+        }
+        if (openStats[offset + COUNT] == 0) {
+            openStats[offset + MIN] = value;
+            openStats[offset + MAX] = value;
+            openStats[offset + SUM] = value;
+        } else {
+            openStats[offset + MIN] = Math.min(openStats[offset + MIN], value);
+            openStats[offset + MAX] = Math.max(openStats[offset + MAX], value);
+            openStats[offset + SUM] += value;
+        }
+        openStats[offset + LAST] = value;
+        openStats[offset + COUNT]++;
+    }
+
+    private void closeOpenBucket() {
+        if (closed == starts.length) {
+            int capacity = closed + (closed >> 1);
+            starts = Arrays.copyOf(starts, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            irrigated = Arrays.copyOf(irrigated, capacity);
+            stats = Arrays.copyOf(stats, capacity * STRIDE);
+        }
+        starts[closed] = openStart;
+        counts[closed] = openCount;
+        irrigated[closed] = openIrrigated;
+        System.arraycopy(openStats, 0, stats, closed * STRIDE, STRIDE);
+        closed++;
+        openCount = 0;
+        openIrrigated = 0;
+    }
+}
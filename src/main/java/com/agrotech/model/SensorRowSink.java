@@ -0,0 +1,10 @@
+package com.agrotech.model;
+
+@FunctionalInterface
+public interface SensorRowSink {
+    void accept(long epochSecond,
+                double soilHumidity,
+                double airTemperature,
+                double airHumidity,
+                boolean irrigationStatus);
+}
@@ -0,0 +1,42 @@
+package com.agrotech.model;
+
+import java.io.File;
+import java.util.Map;
+
+// Versión publicada del dataset: nunca cambia, así que se puede leer sin locks mientras llegan datos nuevos.
+// Los agregados, las estadísticas de ventana y los riegos corresponden exactamente a las filas de data.
+// storeGeneration cambia cuando el almacén se reemplaza o se reescribe; entre dos versiones con la misma
+// generación solo se agregaron filas al final
+public record SensorSnapshot(
+        long version,
+        long storeGeneration,
+        SensorDataset data,
+        Map<RollupTier, RollupSeries> rollups,
+        SensorStatistics statistics,
+        IrrigationEvents irrigationEvents,
+        SensorEnrichment enrichment,
+        StorageMode storageMode,
+        File sourceFile
+) {
+    public SensorSnapshot withSourceFile(File sourceFile) {
+        return new SensorSnapshot(version + 1, storeGeneration, data, rollups, statistics, irrigationEvents,
+                enrichment, storageMode, sourceFile);
+    }
+
+    public SensorSnapshot withEnrichment(SensorEnrichment enrichment) {
+        return new SensorSnapshot(version + 1, storeGeneration, data, rollups, statistics, irrigationEvents,
+                enrichment, storageMode, sourceFile);
+    }
+
+    public EnrichedSensorView enriched() {
+        return new EnrichedSensorView(data, enrichment);
+    }
+
+    public RollupSeries rollup(RollupTier tier) {
+        return rollups.get(tier);
+    }
+
+    public WindowStatistics statistics(StatsWindow window, SensorChannel channel) {
+        return statistics.get(window, channel);
+    }
+}
@@ -0,0 +1,26 @@
+package com.agrotech.model;
+
+import java.util.Arrays;
+
+// Estadísticas de ventana de cada canal, tal como estaban al publicar una versión del dataset
+public final class SensorStatistics {
+    public static final SensorStatistics EMPTY = new SensorStatistics(emptyTable());
+
+    private final WindowStatistics[][] byWindow;
+
+    SensorStatistics(WindowStatistics[][] byWindow) {
+        this.byWindow = byWindow;
+    }
+
+    public WindowStatistics get(StatsWindow window, SensorChannel channel) {
+        return byWindow[window.ordinal()][channel.ordinal()];
+    }
+
+    private static WindowStatistics[][] emptyTable() {
+        WindowStatistics[][] table = new WindowStatistics[StatsWindow.values().length][SensorChannel.values().length];
+        for (WindowStatistics[] row : table) {
+            Arrays.fill(row, WindowStatistics.EMPTY);
+        }
+        return table;
+    }
+}
@@ -0,0 +1,14 @@
+package com.agrotech.model;
+
+public interface SensorStore extends SensorDataset, SensorRowSink, AutoCloseable {
+    // Vista de solo lectura de las filas actuales; no copia datos y no cambia con las escrituras posteriores
+    SensorDataset snapshot();
+
+    default void appendAll(SensorDataset other) {
+        other.forEach(this);
+    }
+
+    // Libera la memoria del almacén; después de cerrarlo no debe volver a leerse
+    @Override
+    default void close() {}
+}
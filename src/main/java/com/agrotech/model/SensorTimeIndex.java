@@ -0,0 +1,110 @@
+package com.agrotech.model;
+
+import java.time.LocalDateTime;
+
+// Índice disperso sobre la columna de timestamps (ordenada y sin repetidos): guarda uno de cada 1024 en un
+// long[] del heap. Una búsqueda recorre primero las muestras y después un solo bloque del dataset, así que
+// en almacenes fuera del heap o mapeados toca unas pocas páginas en lugar de saltar por todo el archivo
+public final class SensorTimeIndex {
+    private static final int STRIDE_SHIFT = 10;
+    private static final int STRIDE = 1 << STRIDE_SHIFT;
+
+    private final SensorDataset data;
+    private final long[] samples;
+
+    private SensorTimeIndex(SensorDataset data, long[] samples) {
+        this.data = data;
+        this.samples = samples;
+    }
+
+    public static SensorTimeIndex build(SensorDataset data) {
+        long[] samples = new long[(data.size() + STRIDE - 1) >>> STRIDE_SHIFT];
+        for (int block = 0; block < samples.length; block++) {
+            samples[block] = data.epochSecond(block << STRIDE_SHIFT);
+        }
+        return new SensorTimeIndex(data, samples);
+    }
+
+    public SensorDataset getData() {
+        return data;
+    }
+
+    // Primera fila con timestamp >= epochSecond, o size() si no hay
+    public int lowerBound(long epochSecond) {
+        int block = lastSampleBefore(epochSecond);
+        if (block < 0) {
+            return 0;
+        }
+        int low = block << STRIDE_SHIFT;
+        int high = Math.min(data.size(), low + STRIDE);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (data.epochSecond(mid) < epochSecond) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Primera fila con timestamp > epochSecond, o size() si no hay
+    public int upperBound(long epochSecond) {
+        return epochSecond == Long.MAX_VALUE ? data.size() : lowerBound(epochSecond + 1);
+    }
+
+    // Lecturas con timestamp en [from, to], ambos inclusive
+    public SensorDataset between(long fromEpochSecond, long toEpochSecond) {
+        int from = lowerBound(fromEpochSecond);
+        int to = Math.max(from, upperBound(toEpochSecond));
+        return new SensorRange(data, from, to);
+    }
+
+    public SensorDataset between(LocalDateTime from, LocalDateTime to) {
+        return between(SensorTimestamp.toEpochSecond(from), SensorTimestamp.toEpochSecond(to));
+    }
+
+    // Fila más cercana al instante; ante empate gana la anterior. -1 si el dataset está vacío
+    public int nearest(long epochSecond) {
+        if (data.isEmpty()) {
+            return -1;
+        }
+        int after = lowerBound(epochSecond);
+        if (after == 0) {
+            return 0;
+        }
+        if (after == data.size()) {
+            return after - 1;
+        }
+        long before = epochSecond - data.epochSecond(after - 1);
+        return data.epochSecond(after) - epochSecond < before ? after : after - 1;
+    }
+
+    public int nearest(LocalDateTime timestamp) {
+        return nearest(SensorTimestamp.toEpochSecond(timestamp));
+    }
+
+    public SensorDataset lastN(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("La cantidad de lecturas no puede ser negativa");
+        }
+        return new SensorRange(data, Math.max(0, data.size() - count), data.size());
+    }
+
+    // Última muestra con timestamp < epochSecond, o -1 si todas son >=
+    private int lastSampleBefore(long epochSecond) {
+        int low = 0;
+        int high = samples.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (samples[mid] < epochSecond) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+}
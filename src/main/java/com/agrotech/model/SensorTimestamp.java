@@ -0,0 +1,126 @@
+package com.agrotech.model;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+// Timestamps del sensor con formato fijo "yyyy-MM-dd HH:mm:ss", contados en segundos desde la época en UTC
+public final class SensorTimestamp {
+    public static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    public static final int LENGTH = 19;
+    public static final long INVALID = Long.MIN_VALUE;
+
+    private SensorTimestamp() {}
+
+    // Camino rápido con respaldo en el formatter para entradas que no siguen el formato exacto
+    public static long parseEpochSecond(CharSequence text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        if (end - start == LENGTH) {
+            long epochSecond = parseFixed(text, start);
+            if (epochSecond != INVALID) {
+                return epochSecond;
+            }
+        }
+        return toEpochSecond(LocalDateTime.parse(text.subSequence(start, end), FORMATTER));
+    }
+
+    // Sin respaldo ni asignaciones: devuelve INVALID si los 19 bytes desde start no siguen el formato
+    public static long parseEpochSecond(ByteBuffer buffer, int start) {
+        if (buffer.get(start + 4) != '-' || buffer.get(start + 7) != '-'
+                || buffer.get(start + 10) != ' '
+                || buffer.get(start + 13) != ':' || buffer.get(start + 16) != ':') {
+            return INVALID;
+        }
+        return epochSecond(
+                digits(buffer, start, 4),
+                digits(buffer, start + 5, 2),
+                digits(buffer, start + 8, 2),
+                digits(buffer, start + 11, 2),
+                digits(buffer, start + 14, 2),
+                digits(buffer, start + 17, 2)
+        );
+    }
+
+    public static LocalDateTime toLocalDateTime(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    public static long toEpochSecond(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long parseFixed(CharSequence text, int start) {
+        if (text.charAt(start + 4) != '-' || text.charAt(start + 7) != '-'
+                || text.charAt(start + 10) != ' '
+                || text.charAt(start + 13) != ':' || text.charAt(start + 16) != ':') {
+            return INVALID;
+        }
+        return epochSecond(
+                digits(text, start, 4),
+                digits(text, start + 5, 2),
+                digits(text, start + 8, 2),
+                digits(text, start + 11, 2),
+                digits(text, start + 14, 2),
+                digits(text, start + 17, 2)
+        );
+    }
+
+    private static long epochSecond(int year, int month, int day, int hour, int minute, int second) {
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return INVALID;
+        }
+        return epochDay(year, month, day) * 86_400L + hour * 3_600L + minute * 60L + second;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    // Días desde 1970-01-01 en el calendario gregoriano proléptico
+    private static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    private static int digits(ByteBuffer buffer, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int digits(CharSequence text, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,73 @@
+package com.agrotech.model;
+
+// Todas las ventanas de todos los canales, alimentadas fila por fila en orden de timestamp
+public final class SensorWindowStats implements SensorRowSink {
+    // Cuántos largos de ventana de historia hacen falta para que el EWMA olvide el arranque
+    private static final int WARMUP_WINDOWS = 8;
+
+    private final SlidingWindowStats[][] byWindow;
+
+    public SensorWindowStats() {
+        StatsWindow[] windows = StatsWindow.values();
+        SensorChannel[] channels = SensorChannel.values();
+        this.byWindow = new SlidingWindowStats[windows.length][channels.length];
+        for (StatsWindow window : windows) {
+            for (SensorChannel channel : channels) {
+                byWindow[window.ordinal()][channel.ordinal()] = new SlidingWindowStats(window);
+            }
+        }
+    }
+
+    @Override
+    public void accept(long epochSecond, double soilHumidity, double airTemperature,
+                       double airHumidity, boolean irrigationStatus) {
+        for (SlidingWindowStats[] channels : byWindow) {
+            channels[SensorChannel.SOIL_HUMIDITY.ordinal()].add(epochSecond, soilHumidity);
+            channels[SensorChannel.AIR_TEMPERATURE.ordinal()].add(epochSecond, airTemperature);
+            channels[SensorChannel.AIR_HUMIDITY.ordinal()].add(epochSecond, airHumidity);
+        }
+    }
+
+    // Primera fila que hace falta recorrer al arrancar sobre un dataset ordenado: lo anterior ya no influye
+    // en ninguna ventana
+    public static int warmupStart(SensorDataset data) {
+        if (data.isEmpty()) {
+            return 0;
+        }
+        int start = data.size();
+        long newest = data.epochSecond(data.size() - 1);
+        for (StatsWindow window : StatsWindow.values()) {
+            if (window.isTimeBased()) {
+                start = Math.min(start, firstAfter(data, newest - WARMUP_WINDOWS * window.getMaxSeconds()));
+            } else {
+                start = Math.min(start, Math.max(0, data.size() - WARMUP_WINDOWS * window.getMaxCount()));
+            }
+        }
+        return start;
+    }
+
+    public SensorStatistics snapshot() {
+        WindowStatistics[][] table = new WindowStatistics[byWindow.length][];
+        for (int w = 0; w < byWindow.length; w++) {
+            table[w] = new WindowStatistics[byWindow[w].length];
+            for (int c = 0; c < byWindow[w].length; c++) {
+                table[w][c] = byWindow[w][c].snapshot();
+            }
+        }
+        return new SensorStatistics(table);
+    }
+
+    private static int firstAfter(SensorDataset data, long epochSecond) {
+        int low = 0;
+        int high = data.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (data.epochSecond(mid) <= epochSecond) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,149 @@
+package com.agrotech.model;
+
+// Estadísticas de un canal sobre una ventana deslizante, O(1) amortizado por lectura: media y varianza con
+// Welford (sumando y restando), mínimo y máximo con colas monótonas de números de secuencia y un EWMA.
+// Las lecturas deben llegar ordenadas por timestamp
+public final class SlidingWindowStats {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final StatsWindow window;
+    private long[] epochs;
+    private double[] values;
+    private int mask;
+    // Secuencia de la lectura más antigua dentro de la ventana y de la próxima a agregar
+    private long head;
+    private long tail;
+
+    private long[] minQueue;
+    private long minHead;
+    private long minTail;
+    private long[] maxQueue;
+    private long maxHead;
+    private long maxTail;
+
+    private double mean;
+    private double m2;
+    private double ewma;
+    private long lastEpochSecond;
+
+    public SlidingWindowStats(StatsWindow window) {
+        this.window = window;
+        int capacity = window.isTimeBased() ? INITIAL_CAPACITY : Integer.highestOneBit(window.getMaxCount()) << 1;
+        this.epochs = new long[capacity];
+        this.values = new double[capacity];
+        this.minQueue = new long[capacity];
+        this.maxQueue = new long[capacity];
+        this.mask = capacity - 1;
+        this.ewma = Double.NaN;
+    }
+
+    public void add(long epochSecond, double value) {
+        if (!Double.isFinite(value)) {
+            return;
+        }
+        if (tail - head == epochs.length) {
+            grow();
+        }
+        updateEwma(epochSecond, value);
+        lastEpochSecond = epochSecond;
+
+        int slot = (int) (tail & mask);
+        epochs[slot] = epochSecond;
+        values[slot] = value;
+        while (minTail > minHead && values[(int) (minQueue[(int) ((minTail - 1) & mask)] & mask)] >= value) {
+            minTail--;
+        }
+        minQueue[(int) (minTail++ & mask)] = tail;
+        while (maxTail > maxHead && values[(int) (maxQueue[(int) ((maxTail - 1) & mask)] & mask)] <= value) {
+            maxTail--;
+        }
+        maxQueue[(int) (maxTail++ & mask)] = tail;
+        tail++;
+
+        long count = tail - head;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+
+        evict(epochSecond);
+    }
+
+    public WindowStatistics snapshot() {
+        int count = (int) (tail - head);
+        if (count == 0) {
+            return WindowStatistics.EMPTY;
+        }
+        double variance = count > 1 ? Math.max(0, m2) / (count - 1) : 0;
+        return new WindowStatistics(count, mean, variance,
+                values[(int) (minQueue[(int) (minHead & mask)] & mask)],
+                values[(int) (maxQueue[(int) (maxHead & mask)] & mask)],
+                ewma);
+    }
+
+    // En ventanas por cantidad el factor es el clásico 2 / (N + 1); en ventanas por tiempo decae con el
+    // tiempo transcurrido, con constante de tiempo igual a media ventana
+    private void updateEwma(long epochSecond, double value) {
+        if (Double.isNaN(ewma)) {
+            ewma = value;
+            return;
+        }
+        double alpha = window.isTimeBased()
+                ? 1 - Math.exp(-(epochSecond - lastEpochSecond) / (window.getMaxSeconds() / 2.0))
+                : 2.0 / (window.getMaxCount() + 1);
+        ewma += alpha * (value - ewma);
+    }
+
+    private void evict(long newestEpochSecond) {
+        while (tail > head && isOutside(newestEpochSecond)) {
+            double value = values[(int) (head & mask)];
+            long count = tail - head - 1;
+            if (count == 0) {
+                mean = 0;
+                m2 = 0;
+            } else {
+                double delta = value - mean;
+                mean -= delta / count;
+                m2 -= delta * (value - mean);
+            }
+            if (minQueue[(int) (minHead & mask)] == head) {
+                minHead++;
+            }
+            if (maxQueue[(int) (maxHead & mask)] == head) {
+                maxHead++;
+            }
+            head++;
+        }
+    }
+
+    private boolean isOutside(long newestEpochSecond) {
+        if (window.getMaxCount() > 0 && tail - head > window.getMaxCount()) {
+            return true;
+        }
+        return window.isTimeBased() && epochs[(int) (head & mask)] <= newestEpochSecond - window.getMaxSeconds();
+    }
+
+    // Al duplicar la capacidad cada secuencia cambia de casillero, así que se reubican una por una
+    private void grow() {
+        int capacity = epochs.length << 1;
+        int newMask = capacity - 1;
+        long[] newEpochs = new long[capacity];
+        double[] newValues = new double[capacity];
+        for (long seq = head; seq < tail; seq++) {
+            newEpochs[(int) (seq & newMask)] = epochs[(int) (seq & mask)];
+            newValues[(int) (seq & newMask)] = values[(int) (seq & mask)];
+        }
+        minQueue = relocate(minQueue, minHead, minTail, newMask);
+        maxQueue = relocate(maxQueue, maxHead, maxTail, newMask);
+        epochs = newEpochs;
+        values = newValues;
+        mask = newMask;
+    }
+
+    private long[] relocate(long[] queue, long from, long to, int newMask) {
+        long[] relocated = new long[newMask + 1];
+        for (long i = from; i < to; i++) {
+            relocated[(int) (i & newMask)] = queue[(int) (i & mask)];
+        }
+        return relocated;
+    }
+}
@@ -0,0 +1,6 @@
+package com.agrotech.model;
+
+// Estado del CSV de origen tomado antes de parsearlo. La carga solo lee hasta size y el snapshot guarda este
+// estado, así nunca dice corresponder a más bytes de los que se parsearon
+public record SourceFingerprint(long size, long lastModified, long contentHash) {
+}
@@ -0,0 +1,68 @@
+package com.agrotech.model;
+
+import java.util.Arrays;
+
+// Valores puntuales por timestamp en arreglos ordenados. Es inmutable: cada cambio copia solo los overrides,
+// nunca las filas del dataset, así que puede publicarse junto con el snapshot
+public final class SparseOverrides<V> {
+    private static final SparseOverrides<?> EMPTY = new SparseOverrides<>(new long[0], new Object[0]);
+
+    private final long[] epochSeconds;
+    private final Object[] values;
+
+    private SparseOverrides(long[] epochSeconds, Object[] values) {
+        this.epochSeconds = epochSeconds;
+        this.values = values;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> SparseOverrides<V> empty() {
+        return (SparseOverrides<V>) EMPTY;
+    }
+
+    public int size() {
+        return epochSeconds.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long epochSecond, V defaultValue) {
+        int position = Arrays.binarySearch(epochSeconds, epochSecond);
+        return position >= 0 ? (V) values[position] : defaultValue;
+    }
+
+    // Un valor null quita el override
+    public SparseOverrides<V> with(long epochSecond, V value) {
+        int position = Arrays.binarySearch(epochSeconds, epochSecond);
+        if (position >= 0) {
+            if (value == null) {
+                return without(position);
+            }
+            Object[] updated = values.clone();
+            updated[position] = value;
+            return new SparseOverrides<>(epochSeconds, updated);
+        }
+        if (value == null) {
+            return this;
+        }
+        int insertAt = -position - 1;
+        long[] keys = new long[epochSeconds.length + 1];
+        Object[] updated = new Object[values.length + 1];
+        System.arraycopy(epochSeconds, 0, keys, 0, insertAt);
+        System.arraycopy(values, 0, updated, 0, insertAt);
+        keys[insertAt] = epochSecond;
+        updated[insertAt] = value;
+        System.arraycopy(epochSeconds, insertAt, keys, insertAt + 1, epochSeconds.length - insertAt);
+        System.arraycopy(values, insertAt, updated, insertAt + 1, values.length - insertAt);
+        return new SparseOverrides<>(keys, updated);
+    }
+
+    private SparseOverrides<V> without(int position) {
+        long[] keys = new long[epochSeconds.length - 1];
+        Object[] updated = new Object[values.length - 1];
+        System.arraycopy(epochSeconds, 0, keys, 0, position);
+        System.arraycopy(values, 0, updated, 0, position);
+        System.arraycopy(epochSeconds, position + 1, keys, position, keys.length - position);
+        System.arraycopy(values, position + 1, updated, position, updated.length - position);
+        return new SparseOverrides<>(keys, updated);
+    }
+}
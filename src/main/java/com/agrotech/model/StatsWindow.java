@@ -0,0 +1,33 @@
+package com.agrotech.model;
+
+// Ventanas deslizantes de las estadísticas en vivo; un límite en 0 significa que no aplica
+public enum StatsWindow {
+    RECENT("Últimas 60 lecturas", 60, 0),
+    HOUR("Última hora", 0, 3_600);
+
+    private final String displayName;
+    private final int maxCount;
+    private final long maxSeconds;
+
+    StatsWindow(String displayName, int maxCount, long maxSeconds) {
+        this.displayName = displayName;
+        this.maxCount = maxCount;
+        this.maxSeconds = maxSeconds;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public int getMaxCount() {
+        return maxCount;
+    }
+
+    public long getMaxSeconds() {
+        return maxSeconds;
+    }
+
+    public boolean isTimeBased() {
+        return maxSeconds > 0;
+    }
+}
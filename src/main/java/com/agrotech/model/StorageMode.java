@@ -0,0 +1,64 @@
+package com.agrotech.model;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import com.sun.management.OperatingSystemMXBean;
+
+import java.lang.management.ManagementFactory;
+
+public enum StorageMode {
+    HEAP("Memoria del proceso"),
+    OFF_HEAP("Memoria directa"),
+    FILE_BACKED("Archivo temporal mapeado"),
+    SNAPSHOT("Snapshot binario mapeado"),
+    COMPRESSED("Memoria del proceso, comprimido");
+
+    // Una fila de ~40 bytes de CSV ocupa 33 bytes en columnas, más la copia al unir fragmentos
+    private static final long HEAP_BYTES_PER_CSV_BYTE = 2;
+    // Fuera del heap los bloques se llenan en su lugar, sin copia al unir
+    private static final long OFF_HEAP_BYTES_PER_CSV_BYTE = 1;
+    // Con lecturas a intervalo fijo los bloques comprimidos ocupan unas 20 veces menos; se cuenta con 4 para
+    // cubrir datos más ruidosos
+    private static final long COMPRESSION_RATIO = 4;
+
+    private final String displayName;
+
+    StorageMode(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    // Los archivos cuyo dataset no cabe holgadamente en el heap se comprimen; si ni así entra van a memoria
+    // directa mientras haya lugar, y si no, a un archivo mapeado
+    public static StorageMode forFileSize(long fileSize) {
+        long heapBudget = Runtime.getRuntime().maxMemory() / 4;
+        long heapBytes = fileSize * HEAP_BYTES_PER_CSV_BYTE;
+        if (heapBytes <= heapBudget) {
+            return HEAP;
+        }
+        if (heapBytes / COMPRESSION_RATIO <= heapBudget) {
+            return COMPRESSED;
+        }
+        return fileSize * OFF_HEAP_BYTES_PER_CSV_BYTE <= directMemoryBudget() ? OFF_HEAP : FILE_BACKED;
+    }
+
+    // Tres cuartos de lo que permite la JVM para buffers directos, sin pasar de la mitad de la memoria física libre
+    private static long directMemoryBudget() {
+        long limit = Runtime.getRuntime().maxMemory();
+        try {
+            long configured = Long.parseLong(ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class)
+                    .getVMOption("MaxDirectMemorySize").getValue());
+            // 0 significa el valor por defecto, igual al heap máximo
+            if (configured > 0) {
+                limit = configured;
+            }
+            OperatingSystemMXBean os = ManagementFactory.getPlatformMXBean(OperatingSystemMXBean.class);
+            return Math.min(limit / 4 * 3, os.getFreeMemorySize() / 2);
+        } catch (RuntimeException e) {
+            // Sin los MXBeans de HotSpot se usa solo el límite por defecto
+            return limit / 4 * 3;
+        }
+    }
+}
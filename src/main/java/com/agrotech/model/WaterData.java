@@ -5,4 +5,9 @@ public record WaterData(
         String temperatureUnit,
         double volume,
         String volumeUnit
-) {}
+) {
+    // Sin datos cargados se toma la temperatura del aire y volumen cero
+    public static WaterData defaultFor(double airTemperature) {
+        return new WaterData(airTemperature, "°C", 0.0, "L");
+    }
+}
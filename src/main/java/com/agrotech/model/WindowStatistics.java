@@ -0,0 +1,21 @@
+package com.agrotech.model;
+
+public record WindowStatistics(
+        int count,
+        double mean,
+        double variance,
+        double min,
+        double max,
+        double ewma
+) {
+    public static final WindowStatistics EMPTY = new WindowStatistics(0, Double.NaN, Double.NaN,
+            Double.NaN, Double.NaN, Double.NaN);
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public double stdDev() {
+        return Math.sqrt(variance);
+    }
+}
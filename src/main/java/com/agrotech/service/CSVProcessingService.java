@@ -1,75 +1,198 @@
 package com.agrotech.service;
 
 import com.agrotech.exception.CSVProcessingException;
+import com.agrotech.exception.FileValidationException;
+import com.agrotech.model.ColumnMapping;
+import com.agrotech.model.FollowPosition;
+import com.agrotech.model.SensorColumns;
 import com.agrotech.model.SensorData;
+import com.agrotech.model.SensorFileFormat;
+import com.agrotech.model.SensorRowSink;
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.function.Consumer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 public class CSVProcessingService {
-    private final List<SensorData> processedData;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int COMPRESSED_BUFFER_SIZE = 1024 * 1024;
+
+    private final MappedCSVParser mappedParser;
+    private final ParallelCSVParser parallelParser;
+    private SensorColumns processedData;
+    private FollowPosition followPosition;
 
     public CSVProcessingService() {
-        this.processedData = new ArrayList<>();
+        this.mappedParser = new MappedCSVParser();
+        this.parallelParser = new ParallelCSVParser();
+        this.processedData = new SensorColumns();
     }
 
-    public boolean processCSVFile(File file, Consumer<Double> progressCallback)
+    // Modo paralelo: los primeros size bytes se dividen en fragmentos alineados a fin de línea y se parsean en el
+    // ForkJoinPool
+    public boolean processCSVFile(File file, long size, ProgressReporter progress)
             throws CSVProcessingException {
-        processedData.clear();
+        if (SensorFileFormat.of(file).isCompressed()) {
+            // Un flujo comprimido no se puede dividir: se descomprime y parsea en un solo recorrido
+            SensorColumns columns = new SensorColumns();
+            forEachCsvStream(file, size, progress, in -> mappedParser.parseStream(in, columns, progress));
+            processedData = columns;
+            followPosition = null;
+            return true;
+        }
+        processedData = parallelParser.parse(file, size, progress);
+        // Cada línea es una fila: antes de validar, las filas son las líneas parseadas
+        followPosition = mappedParser.followPosition(file, size, processedData.size());
+        return true;
+    }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            List<String> lines = reader.lines().toList();
-            int totalLines = lines.size() - 1;
+    // Para un archivo que no se parseó, como uno abierto desde su snapshot: las líneas se cuentan en el archivo.
+    // null si es comprimido
+    public FollowPosition followPosition(File file, long size) throws CSVProcessingException {
+        return SensorFileFormat.of(file).isCompressed() ? null : mappedParser.followPosition(file, size, -1);
+    }
 
-            boolean isFirstLine = true;
-            int currentLine = 0;
+    // Modo binario: el archivo se mapea en memoria y los campos se decodifican sin crear Strings
+    public boolean processCSVFile(File file, SensorRowSink sink, ProgressReporter progress)
+            throws CSVProcessingException {
+        if (SensorFileFormat.of(file).isCompressed()) {
+            forEachCsvStream(file, progress, in -> mappedParser.parseStream(in, sink, progress));
+            return true;
+        }
+        mappedParser.parse(file, sink, progress);
+        return true;
+    }
 
-            for (String line : lines) {
-                if (isFirstLine) {
-                    isFirstLine = false;
-                    continue;
-                }
+    // Modo streaming: cada fila se entrega al sink apenas se lee, sin retener el archivo en memoria
+    public boolean processCSVFile(File file, Consumer<SensorData> sink, ProgressReporter progress)
+            throws CSVProcessingException {
+        forEachCsvStream(file, progress, in -> parseText(in, sink, progress));
+        return true;
+    }
+
+    private void parseText(InputStream in, Consumer<SensorData> sink, ProgressReporter progress)
+            throws IOException, CSVProcessingException {
+        // El reader no se cierra: en un ZIP cerraría también las entradas siguientes
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+        ColumnMapping mapping;
+        try {
+            mapping = ColumnMapping.fromHeader(reader.readLine());
+        } catch (FileValidationException e) {
+            throw new CSVProcessingException(e.getMessage());
+        }
 
-                try {
-                    SensorData data = parseLine(line);
-                    processedData.add(data);
+        int currentLine = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            try {
+                SensorData data = parseLine(line, mapping);
+                sink.accept(data);
 
-                    currentLine++;
-                    if (progressCallback != null) {
-                        progressCallback.accept((double) currentLine / totalLines);
-                    }
-                } catch (Exception e) {
-                    throw new CSVProcessingException("Error en línea " + (currentLine + 1) + ": " + e.getMessage());
+                currentLine++;
+                if (progress != null) {
+                    progress.advance(0, 1);
                 }
+            } catch (Exception e) {
+                throw new CSVProcessingException(currentLine + 1, e.getMessage());
             }
+        }
 
-            return true;
+        if (currentLine == 0) {
+            throw new CSVProcessingException("El archivo no contiene datos");
+        }
+    }
+
+    void forEachCsvStream(File file, ProgressReporter progress, CsvStreamParser parser)
+            throws CSVProcessingException {
+        forEachCsvStream(file, Long.MAX_VALUE, progress, parser);
+    }
+
+    // Abre el archivo según su formato y entrega cada CSV que contiene ya descomprimido.
+    // El avance se mide sobre los bytes leídos del disco y el límite de tamaño sobre los descomprimidos.
+    // Un CSV plano se lee solo hasta size aunque el logger lo siga escribiendo; un comprimido se lee completo,
+    // porque cortado no se puede descomprimir
+    void forEachCsvStream(File file, long size, ProgressReporter progress, CsvStreamParser parser)
+            throws CSVProcessingException {
+        try (InputStream raw = new ProgressInputStream(new FileInputStream(file), progress)) {
+            switch (SensorFileFormat.of(file)) {
+                case CSV -> parser.parse(new TruncatedInputStream(raw, size));
+                case GZIP -> parser.parse(new SizeLimitedInputStream(
+                        new GZIPInputStream(raw, COMPRESSED_BUFFER_SIZE), FileValidationService.MAX_FILE_SIZE));
+                case ZIP -> parseZipEntries(raw, parser);
+            }
         } catch (IOException e) {
             throw new CSVProcessingException("Error al leer el archivo: " + e.getMessage());
         }
     }
 
-    private SensorData parseLine(String line) throws CSVProcessingException {
-        String[] parts = line.split(",");
-        if (parts.length != 5) {
+    private void parseZipEntries(InputStream raw, CsvStreamParser parser) throws IOException, CSVProcessingException {
+        ZipInputStream zip = new ZipInputStream(new BufferedInputStream(raw, COMPRESSED_BUFFER_SIZE));
+        // Un solo límite para todas las entradas: se suman los bytes descomprimidos de cada CSV
+        InputStream limited = new SizeLimitedInputStream(zip, FileValidationService.MAX_FILE_SIZE);
+        int entries = 0;
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            if (entry.isDirectory() || !entry.getName().toLowerCase().endsWith(".csv")) {
+                continue;
+            }
+            try {
+                parser.parse(limited);
+            } catch (CSVProcessingException e) {
+                throw new CSVProcessingException(entry.getName() + ": " + e.getMessage());
+            }
+            entries++;
+        }
+
+        if (entries == 0) {
+            throw new CSVProcessingException("El archivo ZIP no contiene archivos CSV");
+        }
+    }
+
+    @FunctionalInterface
+    interface CsvStreamParser {
+        void parse(InputStream in) throws IOException, CSVProcessingException;
+    }
+
+    private SensorData parseLine(String line, ColumnMapping mapping) throws CSVProcessingException {
+        String[] parts = line.split(",", -1);
+        if (parts.length != mapping.columnCount()) {
             throw new CSVProcessingException(
-                    String.format("Formato inválido: se esperaban 5 campos pero se encontraron %d", parts.length)
+                    String.format("Formato inválido: se esperaban %d campos pero se encontraron %d",
+                            mapping.columnCount(), parts.length)
             );
         }
 
         try {
-            return SensorData.fromCsvLine(line);
+            return SensorData.fromCsvFields(parts, mapping);
         } catch (Exception e) {
             throw new CSVProcessingException("Error al parsear línea: " + e.getMessage());
         }
     }
 
     public List<SensorData> getProcessedData() {
-        return new ArrayList<>(processedData);
+        List<SensorData> data = new ArrayList<>(processedData.size());
+        for (int i = 0; i < processedData.size(); i++) {
+            data.add(processedData.get(i));
+        }
+        return data;
+    }
+
+    public SensorColumns getProcessedColumns() {
+        return processedData;
     }
-}
 
+    // Hasta dónde llegó la última carga en modo paralelo; null si el archivo era comprimido
+    public FollowPosition getFollowPosition() {
+        return followPosition;
+    }
+}
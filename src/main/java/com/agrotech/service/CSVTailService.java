@@ -0,0 +1,139 @@
+package com.agrotech.service;
+
+import com.agrotech.exception.CSVProcessingException;
+import com.agrotech.model.ColumnMapping;
+import com.agrotech.model.FollowPosition;
+import com.agrotech.model.SensorColumns;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Sigue un CSV que el logger sigue escribiendo: solo parsea los bytes agregados desde la última lectura
+public class CSVTailService implements AutoCloseable {
+    // Algunos sistemas entregan los eventos del WatchService con retraso; se revisa el tamaño igualmente
+    private static final long POLL_INTERVAL_MS = 1000;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedCSVParser parser;
+    private final ColumnMapping mapping;
+    private long offset;
+    private long linesRead;
+    private long partialEpochSecond;
+    private WatchService watchService;
+    private Thread watchThread;
+    private volatile boolean running;
+
+    // Retoma desde donde llegó la carga, no desde el tamaño actual: lo que el logger escribió desde entonces se
+    // lee en el primer poll. Una línea final sin '\n' se vuelve a leer cuando se complete
+    public CSVTailService(File file, FollowPosition position) throws CSVProcessingException {
+        this.path = file.toPath().toAbsolutePath();
+        this.parser = new MappedCSVParser();
+        try {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.mapping = parser.readColumnMapping(channel, parser.findDataStart(channel, position.offset()));
+        } catch (IOException e) {
+            throw new CSVProcessingException("Error al leer el archivo: " + e.getMessage());
+        }
+        this.offset = position.offset();
+        this.linesRead = position.lines();
+        this.partialEpochSecond = position.partialEpochSecond();
+    }
+
+    // Timestamp de la lectura que la carga tomó de una línea a medio escribir, que debe quitarse del dataset
+    // antes de agregar lo leído; Long.MIN_VALUE si no hay o ya se entregó
+    public long takePartialEpochSecond() {
+        long epochSecond = partialEpochSecond;
+        partialEpochSecond = Long.MIN_VALUE;
+        return epochSecond;
+    }
+
+    // Posición actual, para retomar el seguimiento más adelante
+    public FollowPosition getPosition() {
+        return new FollowPosition(offset, linesRead, partialEpochSecond);
+    }
+
+    // Parsea solo las líneas completas agregadas; una línea a medio escribir queda para la siguiente vez
+    public SensorColumns poll() throws CSVProcessingException {
+        SensorColumns appended = new SensorColumns();
+        try {
+            long size = channel.size();
+            if (size < offset) {
+                throw new CSVProcessingException("El archivo fue truncado o reemplazado; vuelva a cargarlo");
+            }
+            long end = parser.findLastLineEnd(channel, offset, size);
+            if (end == offset) {
+                return appended;
+            }
+
+            long rows = parser.parseRange(channel, offset, end, linesRead, mapping, appended, null);
+            linesRead += rows;
+            offset = end;
+            return IngestPipeline.validate(appended);
+        } catch (IOException e) {
+            throw new CSVProcessingException("Error al leer el archivo: " + e.getMessage());
+        }
+    }
+
+    public void start(Consumer<SensorColumns> onAppended, Consumer<Exception> onError) throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        path.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+        running = true;
+
+        watchThread = new Thread(() -> {
+            try {
+                while (running) {
+                    WatchKey key = watchService.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                    if (key != null) {
+                        key.pollEvents();
+                        key.reset();
+                    }
+                    SensorColumns appended = poll();
+                    if (!appended.isEmpty()) {
+                        onAppended.accept(appended);
+                    }
+                }
+            } catch (ClosedWatchServiceException | InterruptedException e) {
+                // Seguimiento detenido
+            } catch (Exception e) {
+                if (running) {
+                    running = false;
+                    onError.accept(e);
+                }
+            }
+        }, "csv-tail-" + path.getFileName());
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            if (watchService != null) {
+                watchService.close();
+            }
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error al detener el seguimiento del archivo: " + e.getMessage());
+        }
+        if (watchThread != null) {
+            watchThread.interrupt();
+        }
+    }
+}
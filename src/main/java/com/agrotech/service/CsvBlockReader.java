@@ -0,0 +1,105 @@
+package com.agrotech.service;
+
+import com.agrotech.exception.CSVProcessingException;
+import com.agrotech.model.ColumnMapping;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.SubmissionPublisher;
+
+// Etapa de lectura: corta el CSV en bloques de líneas completas. Cada bloque es un arreglo nuevo porque pasa
+// a ser de la etapa siguiente; el tamaño acota la memoria en vuelo a bloques × buffer de cada etapa
+public class CsvBlockReader {
+    private static final int BLOCK_SIZE = 1024 * 1024;
+
+    public record Block(ByteBuffer bytes, long firstLine, ColumnMapping mapping) {
+    }
+
+    // Devuelve false si ya no quedan suscriptores (una etapa posterior falló) y no tiene sentido seguir leyendo
+    public boolean read(InputStream in, SubmissionPublisher<Block> publisher) throws IOException, CSVProcessingException {
+        byte[] bytes = new byte[BLOCK_SIZE];
+        int filled = fill(in, bytes, 0);
+        int headerEnd = indexOf(bytes, 0, filled);
+        if (headerEnd < 0 && filled == bytes.length) {
+            throw new CSVProcessingException("El header del archivo es demasiado largo");
+        }
+        int start = headerEnd < 0 ? filled : headerEnd + 1;
+        ColumnMapping mapping = MappedCSVParser.toColumnMapping(new String(bytes, 0, start, StandardCharsets.UTF_8));
+        long line = 0;
+
+        while (start < filled) {
+            boolean eof = filled < bytes.length;
+            int limit = eof ? filled : lastIndexOf(bytes, start, filled) + 1;
+            if (limit <= start) {
+                if (start == 0) {
+                    throw new CSVProcessingException(line + 1, "la línea excede el tamaño máximo");
+                }
+            } else {
+                if (publisher.getNumberOfSubscribers() == 0) {
+                    return false;
+                }
+                publisher.submit(new Block(ByteBuffer.wrap(bytes, start, limit - start), line, mapping));
+                line += countLines(bytes, start, limit, eof);
+            }
+            if (eof) {
+                break;
+            }
+
+            // El resto (una línea parcial) inicia el bloque siguiente
+            int carry = Math.max(limit, start);
+            int remaining = filled - carry;
+            byte[] next = new byte[BLOCK_SIZE];
+            System.arraycopy(bytes, carry, next, 0, remaining);
+            bytes = next;
+            filled = fill(in, bytes, remaining);
+            start = 0;
+        }
+
+        if (line == 0) {
+            throw new CSVProcessingException("El archivo no contiene datos");
+        }
+        return true;
+    }
+
+    private static long countLines(byte[] bytes, int from, int to, boolean eof) {
+        long lines = 0;
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == '\n') {
+                lines++;
+            }
+        }
+        // Última línea sin salto al final del archivo
+        return eof && bytes[to - 1] != '\n' ? lines + 1 : lines;
+    }
+
+    private static int fill(InputStream in, byte[] bytes, int offset) throws IOException {
+        while (offset < bytes.length) {
+            int read = in.read(bytes, offset, bytes.length - offset);
+            if (read < 0) {
+                break;
+            }
+            offset += read;
+        }
+        return offset;
+    }
+
+    private static int indexOf(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(byte[] bytes, int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -1,35 +1,339 @@
 package com.agrotech.service;
 
 import com.agrotech.model.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
+// Los escritores (carga, seguimiento, lecturas en vivo) se serializan y publican una nueva versión inmutable;
+// los lectores toman la versión actual sin locks y la conservan mientras la usan
 public class DataTransformationService {
-    private static DataTransformationService instance;
-    private final List<SensorDataEnriched> enrichedData;
+    private static final DataTransformationService INSTANCE = new DataTransformationService();
+
+    private final AtomicReference<SensorSnapshot> current;
+    private final TimestampRepairService repairService;
+    // Estado del lado escritor, protegido por el monitor de la instancia
+    private SensorStore sensorData;
+    private StorageMode storageMode;
+    private SensorIngestStage ingestStage;
+    // Overrides cargados a mano; se descartan al cambiar de dataset
+    private SensorEnrichment enrichment;
+    // Agregados por nivel, estadísticas de ventana y riegos, con cuántas filas de derivedSource ya incorporaron
+    private final Map<RollupTier, SensorRollup> rollups;
+    private SensorWindowStats windowStats;
+    private IrrigationEventLog irrigationLog;
+    private SensorStore derivedSource;
+    private int derivedRows;
+    private long storeGeneration;
+    // Hasta dónde se leyó el CSV de origen; el seguimiento retoma desde ahí
+    private FollowPosition followPosition;
+    // Índice de la última versión consultada; si dos lectores lo construyen a la vez, ambos resultados valen
+    private volatile SensorTimeIndex timeIndex;
 
     private DataTransformationService() {
-        this.enrichedData = new ArrayList<>();
+        this.sensorData = new SensorColumns();
+        this.storageMode = StorageMode.HEAP;
+        this.repairService = new TimestampRepairService();
+        this.ingestStage = new SensorIngestStage(sensorData);
+        this.enrichment = SensorEnrichment.NONE;
+        this.rollups = new EnumMap<>(RollupTier.class);
+        this.current = new AtomicReference<>(new SensorSnapshot(0, 0, sensorData.snapshot(), Map.of(),
+                SensorStatistics.EMPTY, new IrrigationEventLog().snapshot(), enrichment, storageMode, null));
+        publish(null);
     }
 
     public static DataTransformationService getInstance() {
-        if (instance == null) {
-            instance = new DataTransformationService();
+        return INSTANCE;
+    }
+
+    // Solo carga las lecturas base: el enriquecimiento es una vista que se resuelve al leer
+    public synchronized void enrichSensorData(List<SensorData> basicData) {
+        clear();
+        basicData.forEach(this::addSensorData);
+        finishIngest();
+    }
+
+    public void clear() {
+        clear(StorageMode.HEAP);
+    }
+
+    // Libera el almacén anterior antes de preparar uno nuevo en el modo indicado; las vistas ya tomadas
+    // del almacén anterior siguen siendo legibles
+    public synchronized void clear(StorageMode mode) {
+        sensorData.close();
+        sensorData = createStore(mode);
+        storageMode = storageModeOf(sensorData);
+        ingestStage = new SensorIngestStage(sensorData);
+        enrichment = SensorEnrichment.NONE;
+        followPosition = null;
+        publish(null);
+    }
+
+    // Adopta un almacén ya cargado, como un snapshot mapeado
+    public synchronized void replaceStore(SensorStore store, StorageMode mode) {
+        sensorData.close();
+        sensorData = store;
+        storageMode = mode;
+        ingestStage = new SensorIngestStage(sensorData);
+        enrichment = SensorEnrichment.NONE;
+        followPosition = null;
+        publish(null);
+    }
+
+    public synchronized void addSensorData(SensorData data) {
+        ingestStage.accept(data.epochSecond(), data.soilHumidity(), data.airTemperature(),
+                data.airHumidity(), data.irrigationStatus());
+    }
+
+    // Con el almacén en heap vacío las columnas se adoptan sin copiarlas, salvo que haya que reordenarlas
+    public synchronized void addColumns(SensorColumns columns) {
+        if (sensorData.isEmpty() && storageMode == StorageMode.HEAP) {
+            SensorColumns repaired = repairService.repair(columns);
+            if (repaired.size() < columns.size()) {
+                System.out.println("Lecturas repetidas descartadas: " + (columns.size() - repaired.size()));
+            }
+            sensorData = repaired;
+            ingestStage = new SensorIngestStage(sensorData);
+            publish(current.get().sourceFile());
+        } else {
+            columns.forEach(ingestStage);
+            finishIngest();
+        }
+    }
+
+    // Las lecturas sueltas pasan por la etapa de ingreso y se publican recién con finishIngest
+    public synchronized void addReading(long epochSecond, double soilHumidity, double airTemperature,
+                                        double airHumidity, boolean irrigationStatus) {
+        ingestStage.accept(epochSecond, soilHumidity, airTemperature, airHumidity, irrigationStatus);
+    }
+
+    // Publica la nueva versión; si llegaron lecturas fuera de orden, antes reescribe el almacén ya ordenado
+    public synchronized void finishIngest() {
+        long duplicates = ingestStage.takeDuplicates();
+        if (duplicates > 0) {
+            System.out.println("Lecturas repetidas descartadas: " + duplicates);
+        }
+        if (ingestStage.needsSort()) {
+            rewriteStore(repairService.sortedUniqueOrder(sensorData));
+            ingestStage = new SensorIngestStage(sensorData);
         }
-        return instance;
+        publish(current.get().sourceFile());
     }
 
-    public void enrichSensorData(List<SensorData> basicData) {
-        enrichedData.clear();
-        enrichedData.addAll(basicData.stream()
-                .map(SensorDataEnriched::fromBasicData)
-                .toList());
+    // Quita la lectura con ese timestamp, si existe, reescribiendo el almacén sin ella. Publica la nueva versión
+    public synchronized void removeReading(long epochSecond) {
+        finishIngest();
+        SensorSnapshot snapshot = current.get();
+        int index = getTimeIndex(snapshot).lowerBound(epochSecond);
+        if (index == snapshot.data().size() || snapshot.data().epochSecond(index) != epochSecond) {
+            return;
+        }
+        int[] order = new int[sensorData.size() - 1];
+        for (int i = 0, row = 0; i < order.length; i++, row++) {
+            if (row == index) {
+                row++;
+            }
+            order[i] = row;
+        }
+        rewriteStore(order);
+        ingestStage = new SensorIngestStage(sensorData);
+        publish(snapshot.sourceFile());
+    }
+
+    // Copia las filas en ese orden a un almacén nuevo del mismo tipo; un snapshot mapeado pasa al heap
+    private void rewriteStore(int[] order) {
+        SensorStore rewritten = createStore(storageMode == StorageMode.SNAPSHOT ? StorageMode.HEAP : storageMode);
+        repairService.copyRows(sensorData, order, rewritten);
+        sensorData.close();
+        sensorData = rewritten;
+        storageMode = storageModeOf(rewritten);
+    }
+
+    // Versión actual, inmutable; conviene tomarla una vez y leer todo de ella
+    public SensorSnapshot getSnapshot() {
+        return current.get();
+    }
+
+    public SensorDataset getSensorData() {
+        return current.get().data();
+    }
+
+    // CSV del que provienen los datos, usado por el seguimiento en vivo
+    public File getSourceFile() {
+        return current.get().sourceFile();
     }
 
+    // followPosition es null si el origen no se puede seguir, como un archivo comprimido
+    public synchronized void setSourceFile(File sourceFile, FollowPosition followPosition) {
+        this.followPosition = followPosition;
+        current.set(current.get().withSourceFile(sourceFile));
+    }
+
+    public synchronized FollowPosition getFollowPosition() {
+        return followPosition;
+    }
+
+    public synchronized void setFollowPosition(FollowPosition followPosition) {
+        this.followPosition = followPosition;
+    }
+
+    public StorageMode getStorageMode() {
+        return current.get().storageMode();
+    }
+
+    // El almacén se mantiene ordenado por timestamp, así que la última fila es la lectura más reciente
     public SensorDataEnriched getLatestReading() {
-        if (enrichedData.isEmpty()) {
+        EnrichedSensorView view = current.get().enriched();
+        if (view.isEmpty()) {
             return null;
         }
-        return enrichedData.getLast();
+        return view.get(view.size() - 1);
+    }
+
+    public EnrichedSensorView getEnrichedData() {
+        return current.get().enriched();
+    }
+
+    public synchronized void setCropType(LocalDateTime timestamp, String cropType) {
+        updateEnrichment(enrichment.withCropType(SensorTimestamp.toEpochSecond(timestamp), cropType));
+    }
+
+    public synchronized void setWaterData(LocalDateTime timestamp, WaterData waterData) {
+        updateEnrichment(enrichment.withWaterData(SensorTimestamp.toEpochSecond(timestamp), waterData));
+    }
+
+    public synchronized void setIrrigationLevel(LocalDateTime timestamp, double irrigationLevel) {
+        updateEnrichment(enrichment.withIrrigationLevel(SensorTimestamp.toEpochSecond(timestamp), irrigationLevel));
+    }
+
+    // Publica una versión con los mismos datos y los overrides nuevos
+    private void updateEnrichment(SensorEnrichment updated) {
+        enrichment = updated;
+        current.set(current.get().withEnrichment(updated));
+    }
+
+    // Buckets ya agregados del nivel pedido, para gráficos y reportes de períodos largos
+    public RollupSeries getRollup(RollupTier tier) {
+        return current.get().rollup(tier);
+    }
+
+    public IrrigationEvents getIrrigationEvents() {
+        return current.get().irrigationEvents();
+    }
+
+    // Riegos que se superponen con el rango, sin recorrer las lecturas
+    public List<IrrigationEvent> getIrrigationEvents(LocalDateTime from, LocalDateTime to) {
+        return current.get().irrigationEvents().between(from, to);
+    }
+
+    public Duration getIrrigationTime(LocalDateTime from, LocalDateTime to) {
+        return current.get().irrigationEvents().totalDuration(from, to);
+    }
+
+    public WindowStatistics getWindowStatistics(StatsWindow window, SensorChannel channel) {
+        return current.get().statistics(window, channel);
+    }
+
+    public SensorTimeIndex getTimeIndex() {
+        return getTimeIndex(current.get());
+    }
+
+    // Índice de una versión ya tomada, para leer índice, agregados y datos de la misma versión
+    public SensorTimeIndex getTimeIndex(SensorSnapshot snapshot) {
+        SensorTimeIndex index = timeIndex;
+        if (index == null || index.getData() != snapshot.data()) {
+            index = SensorTimeIndex.build(snapshot.data());
+            timeIndex = index;
+        }
+        return index;
+    }
+
+    // Vista de las lecturas en [from, to], sin copiarlas
+    public SensorDataset getReadingsBetween(LocalDateTime from, LocalDateTime to) {
+        return getTimeIndex().between(from, to);
+    }
+
+    public SensorData getNearestReading(LocalDateTime timestamp) {
+        SensorTimeIndex index = getTimeIndex();
+        int row = index.nearest(timestamp);
+        return row < 0 ? null : index.getData().get(row);
+    }
+
+    public SensorDataset getLastReadings(int count) {
+        return getTimeIndex().lastN(count);
+    }
+
+    // Los agregados y las estadísticas solo incorporan las filas agregadas desde la última publicación; si el
+    // almacén cambió (carga nueva o reordenamiento) se rehacen desde cero
+    private void publish(File sourceFile) {
+        if (derivedSource != sensorData || derivedRows > sensorData.size()) {
+            for (RollupTier tier : RollupTier.values()) {
+                rollups.put(tier, new SensorRollup(tier));
+            }
+            windowStats = new SensorWindowStats();
+            irrigationLog = new IrrigationEventLog();
+            derivedSource = sensorData;
+            derivedRows = 0;
+            storeGeneration++;
+        }
+        updateRollupsAndEvents();
+        // Las ventanas solo necesitan la cola del dataset, no toda la historia
+        sensorData.forEach(Math.max(derivedRows, SensorWindowStats.warmupStart(sensorData)), sensorData.size(),
+                windowStats);
+        derivedRows = sensorData.size();
+
+        Map<RollupTier, RollupSeries> series = new EnumMap<>(RollupTier.class);
+        rollups.forEach((tier, rollup) -> series.put(tier, rollup.snapshot()));
+        SensorSnapshot previous = current.get();
+        current.set(new SensorSnapshot(previous.version() + 1, storeGeneration, sensorData.snapshot(),
+                Collections.unmodifiableMap(series), windowStats.snapshot(), irrigationLog.snapshot(), enrichment,
+                storageMode, sourceFile));
+    }
+
+    private void updateRollupsAndEvents() {
+        SensorRollup minutes = rollups.get(RollupTier.MINUTE);
+        SensorRollup hours = rollups.get(RollupTier.HOUR);
+        SensorRollup days = rollups.get(RollupTier.DAY);
+        IrrigationEventLog events = irrigationLog;
+        sensorData.forEach(derivedRows, sensorData.size(), (epochSecond, soil, temperature, humidity, irrigation) -> {
+            minutes.accept(epochSecond, soil, temperature, humidity, irrigation);
+            hours.accept(epochSecond, soil, temperature, humidity, irrigation);
+            days.accept(epochSecond, soil, temperature, humidity, irrigation);
+            events.accept(epochSecond, soil, temperature, humidity, irrigation);
+        });
+    }
+
+    // Almacén vacío para el modo indicado; uno con archivo de respaldo cae a memoria directa si no puede crearse
+    public SensorStore createStore(StorageMode mode) {
+        return switch (mode) {
+            case HEAP -> new SensorColumns();
+            case OFF_HEAP -> OffHeapSensorColumns.direct();
+            case FILE_BACKED -> {
+                try {
+                    yield OffHeapSensorColumns.fileBacked(Path.of(System.getProperty("java.io.tmpdir")));
+                } catch (IOException e) {
+                    System.err.println("No se pudo crear el archivo de respaldo, se usa memoria directa: " + e.getMessage());
+                    yield OffHeapSensorColumns.direct();
+                }
+            }
+            case COMPRESSED -> new CompressedSensorColumns();
+            case SNAPSHOT -> throw new IllegalArgumentException("Los snapshots se abren con SensorSnapshotService");
+        };
+    }
+
+    // Modo real del almacén: uno con archivo de respaldo que no pudo crearse queda en memoria directa
+    private static StorageMode storageModeOf(SensorStore store) {
+        if (store instanceof OffHeapSensorColumns offHeap) {
+            return offHeap.getStorageMode();
+        }
+        return store instanceof CompressedSensorColumns ? StorageMode.COMPRESSED : StorageMode.HEAP;
     }
-}
\ No newline at end of file
+}
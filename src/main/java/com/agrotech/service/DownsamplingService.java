@@ -0,0 +1,178 @@
+package com.agrotech.service;
+
+import com.agrotech.model.*;
+
+import java.util.Arrays;
+
+// Reduce el rango visible de un canal a unos pocos puntos por píxel. Solo recorre las filas del rango pedido;
+// con mín/máx, si un bucket de los agregados entra en un píxel se leen los agregados en lugar de las lecturas
+public class DownsamplingService {
+
+    public ChartSeries downsample(SensorSnapshot snapshot, SensorTimeIndex index, SensorChannel channel,
+                                  long fromEpochSecond, long toEpochSecond, int pixels, DownsamplingMode mode) {
+        if (pixels <= 0 || toEpochSecond <= fromEpochSecond) {
+            return ChartSeries.empty(fromEpochSecond, toEpochSecond);
+        }
+        // Una fila a cada lado para que la línea llegue hasta los bordes
+        int from = Math.max(0, index.lowerBound(fromEpochSecond) - 1);
+        int to = Math.min(index.getData().size(), index.upperBound(toEpochSecond) + 1);
+        if (from >= to) {
+            return ChartSeries.empty(fromEpochSecond, toEpochSecond);
+        }
+        return switch (mode) {
+            case MIN_MAX -> minMax(snapshot, index.getData(), channel, from, to, fromEpochSecond, toEpochSecond, pixels);
+            case LTTB -> lttb(index.getData(), channel, from, to, fromEpochSecond, toEpochSecond, pixels);
+        };
+    }
+
+    private ChartSeries minMax(SensorSnapshot snapshot, SensorDataset data, SensorChannel channel, int from, int to,
+                               long fromEpochSecond, long toEpochSecond, int pixels) {
+        double secondsPerPixel = (double) (toEpochSecond - fromEpochSecond) / pixels;
+        RollupTier tier = coarsestTierWithin(secondsPerPixel);
+        Columns columns = new Columns(fromEpochSecond, secondsPerPixel, pixels);
+        // Los extremos quedan fuera de la ventana y se agregan como lecturas sueltas
+        columns.add(data.epochSecond(from), channel.valueOf(data, from));
+        columns.add(data.epochSecond(to - 1), channel.valueOf(data, to - 1));
+
+        if (tier != null && to - from > 2L * pixels) {
+            RollupSeries rollup = snapshot.rollup(tier);
+            int end = rollup.lowerBound(toEpochSecond + tier.getSeconds());
+            for (int i = rollup.lowerBound(fromEpochSecond); i < end; i++) {
+                long epochSecond = rollup.bucketStart(i) + tier.getSeconds() / 2;
+                columns.add(epochSecond, rollup.min(channel, i));
+                columns.add(epochSecond, rollup.max(channel, i));
+            }
+        } else {
+            for (int i = from + 1; i < to - 1; i++) {
+                columns.add(data.epochSecond(i), channel.valueOf(data, i));
+            }
+        }
+        return columns.toSeries(toEpochSecond);
+    }
+
+    // Largest-Triangle-Three-Buckets: conserva la primera y la última fila y de cada bucket intermedio elige la
+    // que forma el triángulo de mayor área con el punto elegido antes y el promedio del bucket siguiente
+    private ChartSeries lttb(SensorDataset data, SensorChannel channel, int from, int to,
+                             long fromEpochSecond, long toEpochSecond, int threshold) {
+        int count = to - from;
+        if (count <= threshold || threshold < 3) {
+            long[] epochs = new long[count];
+            double[] values = new double[count];
+            for (int i = 0; i < count; i++) {
+                epochs[i] = data.epochSecond(from + i);
+                values[i] = channel.valueOf(data, from + i);
+            }
+            return new ChartSeries(fromEpochSecond, toEpochSecond, epochs, values, values, count);
+        }
+
+        long[] epochs = new long[threshold];
+        double[] values = new double[threshold];
+        double bucketSize = (double) (count - 2) / (threshold - 2);
+        int selected = from;
+        epochs[0] = data.epochSecond(from);
+        values[0] = channel.valueOf(data, from);
+
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int start = from + 1 + (int) (bucket * bucketSize);
+            int end = from + 1 + (int) ((bucket + 1) * bucketSize);
+            int nextEnd = Math.min(to, from + 1 + (int) ((bucket + 2) * bucketSize));
+
+            // Promedio del bucket siguiente, con el tiempo relativo al punto elegido para no perder precisión
+            long origin = data.epochSecond(selected);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = end; i < nextEnd; i++) {
+                avgX += data.epochSecond(i) - origin;
+                avgY += channel.valueOf(data, i);
+            }
+            int nextCount = Math.max(1, nextEnd - end);
+            avgX /= nextCount;
+            avgY /= nextCount;
+
+            double selectedY = channel.valueOf(data, selected);
+            double maxArea = -1;
+            int best = start;
+            for (int i = start; i < end; i++) {
+                double x = data.epochSecond(i) - origin;
+                double y = channel.valueOf(data, i);
+                double area = Math.abs(x * (avgY - selectedY) - avgX * (y - selectedY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    best = i;
+                }
+            }
+            selected = best;
+            epochs[bucket + 1] = data.epochSecond(best);
+            values[bucket + 1] = channel.valueOf(data, best);
+        }
+        epochs[threshold - 1] = data.epochSecond(to - 1);
+        values[threshold - 1] = channel.valueOf(data, to - 1);
+        return new ChartSeries(fromEpochSecond, toEpochSecond, epochs, values, values, threshold);
+    }
+
+    private RollupTier coarsestTierWithin(double secondsPerPixel) {
+        RollupTier best = null;
+        for (RollupTier tier : RollupTier.values()) {
+            if (tier.getSeconds() <= secondsPerPixel) {
+                best = tier;
+            }
+        }
+        return best;
+    }
+
+    // Una columna por píxel más las dos de los extremos fuera de la ventana
+    private static final class Columns {
+        private final long fromEpochSecond;
+        private final double secondsPerPixel;
+        private final long[] epochs;
+        private final double[] min;
+        private final double[] max;
+
+        Columns(long fromEpochSecond, double secondsPerPixel, int pixels) {
+            this.fromEpochSecond = fromEpochSecond;
+            this.secondsPerPixel = secondsPerPixel;
+            this.epochs = new long[pixels + 2];
+            this.min = new double[pixels + 2];
+            this.max = new double[pixels + 2];
+            for (int column = 0; column < epochs.length; column++) {
+                epochs[column] = fromEpochSecond + Math.round((column - 0.5) * secondsPerPixel);
+            }
+            Arrays.fill(min, Double.POSITIVE_INFINITY);
+            Arrays.fill(max, Double.NEGATIVE_INFINITY);
+        }
+
+        void add(long epochSecond, double value) {
+            if (Double.isNaN(value)) {
+                return;
+            }
+            double offset = (epochSecond - fromEpochSecond) / secondsPerPixel;
+            int column = (int) Math.max(-1, Math.min(min.length - 2, Math.floor(offset))) + 1;
+            if (column == 0 || column == epochs.length - 1) {
+                // Fuera de la ventana se conserva el instante real para que la pendiente hacia el borde sea correcta
+                epochs[column] = epochSecond;
+            }
+            if (value < min[column]) {
+                min[column] = value;
+            }
+            if (value > max[column]) {
+                max[column] = value;
+            }
+        }
+
+        ChartSeries toSeries(long toEpochSecond) {
+            int size = 0;
+            long[] times = new long[min.length];
+            double[] mins = new double[min.length];
+            double[] maxs = new double[min.length];
+            for (int column = 0; column < min.length; column++) {
+                if (min[column] <= max[column]) {
+                    times[size] = epochs[column];
+                    mins[size] = min[column];
+                    maxs[size] = max[column];
+                    size++;
+                }
+            }
+            return new ChartSeries(fromEpochSecond, toEpochSecond, times, mins, maxs, size);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.agrotech.service;
+
+import com.agrotech.model.SensorRowSink;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+// Reproduce un CSV respetando los intervalos entre lecturas, acelerados por el factor indicado
+public class FileReplaySource extends LineSensorSource {
+    // Un hueco largo en el registro (logger apagado) no debe congelar la reproducción
+    private static final long MAX_PAUSE_MILLIS = 2000;
+
+    private final File file;
+    private final double speed;
+    private long previousEpochSecond = Long.MIN_VALUE;
+    private Thread readerThread;
+
+    public FileReplaySource(File file, double speed) {
+        if (speed <= 0) {
+            throw new IllegalArgumentException("La velocidad de reproducción debe ser positiva");
+        }
+        this.file = file;
+        this.speed = speed;
+    }
+
+    @Override
+    public void read(SensorRowSink sink) throws IOException {
+        readerThread = Thread.currentThread();
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            readLines(reader, sink);
+        }
+    }
+
+    @Override
+    protected void onReading(long epochSecond) {
+        if (previousEpochSecond != Long.MIN_VALUE && epochSecond > previousEpochSecond) {
+            long pause = Math.min(MAX_PAUSE_MILLIS, (long) ((epochSecond - previousEpochSecond) * 1000 / speed));
+            try {
+                Thread.sleep(pause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+            }
+        }
+        previousEpochSecond = epochSecond;
+    }
+
+    @Override
+    public String getDescription() {
+        return String.format("Reproducción de %s (x%.0f)", file.getName(), speed);
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        if (readerThread != null) {
+            readerThread.interrupt();
+        }
+    }
+}
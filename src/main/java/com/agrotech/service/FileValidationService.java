@@ -1,23 +1,18 @@
 package com.agrotech.service;
 
 import com.agrotech.exception.FileValidationException;
+import com.agrotech.model.SensorFileFormat;
 
-import java.io.*;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
+import java.io.File;
 
 public class FileValidationService {
-    private static final Set<String> REQUIRED_HEADERS = new HashSet<>(Arrays.asList(
-            "timestamp", "soil_humidity", "air_temperature", "air_humidity", "irrigation_status"
-    ));
-
-    private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
+    // 4GB, el procesamiento es streaming; en archivos comprimidos se aplica al contenido descomprimido
+    public static final long MAX_FILE_SIZE = 4L * 1024 * 1024 * 1024;
 
     public boolean validateFile(File file) throws FileValidationException {
         validateFileBasics(file);
         validateFileSize(file);
-        validateFileStructure(file);
+        // Headers y datos se validan al parsear (ColumnMapping), en la misma lectura del archivo
 
         return true;
     }
@@ -32,8 +27,8 @@ public class FileValidationService {
         if (!file.isFile()) {
             throw new FileValidationException("La ruta no corresponde a un archivo");
         }
-        if (!file.getName().toLowerCase().endsWith(".csv")) {
-            throw new FileValidationException("El archivo debe tener extensión .csv");
+        if (!SensorFileFormat.isSupported(file)) {
+            throw new FileValidationException("El archivo debe tener extensión .csv, .csv.gz o .zip");
         }
     }
 
@@ -41,37 +36,10 @@ public class FileValidationService {
         if (file.length() == 0) {
             throw new FileValidationException("El archivo está vacío");
         }
-        if (file.length() > MAX_FILE_SIZE) {
+        if (!SensorFileFormat.of(file).isCompressed() && file.length() > MAX_FILE_SIZE) {
             throw new FileValidationException(
                     String.format("El archivo excede el tamaño máximo permitido de %d MB", MAX_FILE_SIZE / (1024 * 1024))
             );
         }
     }
-
-    private void validateFileStructure(File file) throws FileValidationException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            // Validar headers
-            String headerLine = reader.readLine();
-            if (headerLine == null) {
-                throw new FileValidationException("El archivo no contiene headers");
-            }
-
-            Set<String> headers = new HashSet<>(Arrays.asList(headerLine.toLowerCase().split(",")));
-            for (String requiredHeader : REQUIRED_HEADERS) {
-                if (!headers.contains(requiredHeader)) {
-                    throw new FileValidationException(
-                            String.format("Falta la columna requerida: %s", requiredHeader)
-                    );
-                }
-            }
-
-            // Validar que haya al menos una línea de datos
-            if (reader.readLine() == null) {
-                throw new FileValidationException("El archivo no contiene datos");
-            }
-
-        } catch (IOException e) {
-            throw new FileValidationException("Error al leer el archivo: " + e.getMessage());
-        }
-    }
 }
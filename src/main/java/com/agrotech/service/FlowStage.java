@@ -0,0 +1,54 @@
+package com.agrotech.service;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+
+// Etapa intermedia del pipeline: recibe lotes, los transforma en el hilo de entrega de la etapa anterior y
+// publica el resultado. Pide un lote a la vez y submit() bloquea con el buffer de salida lleno, así que una
+// etapa lenta frena a las anteriores en lugar de acumular colas sin límite
+public class FlowStage<I, O> extends SubmissionPublisher<O> implements Flow.Processor<I, O> {
+    @FunctionalInterface
+    public interface BatchTransform<I, O> {
+        // null descarta el lote
+        O apply(I batch) throws Exception;
+    }
+
+    private final BatchTransform<? super I, ? extends O> transform;
+    private Flow.Subscription subscription;
+
+    public FlowStage(Executor executor, int bufferCapacity, BatchTransform<? super I, ? extends O> transform) {
+        super(executor, bufferCapacity);
+        this.transform = transform;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(I batch) {
+        try {
+            O result = transform.apply(batch);
+            if (result != null) {
+                submit(result);
+            }
+            subscription.request(1);
+        } catch (Exception e) {
+            subscription.cancel();
+            closeExceptionally(e);
+        }
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        closeExceptionally(error);
+    }
+
+    @Override
+    public void onComplete() {
+        close();
+    }
+}
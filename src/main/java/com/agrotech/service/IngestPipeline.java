@@ -0,0 +1,193 @@
+package com.agrotech.service;
+
+import com.agrotech.exception.CSVProcessingException;
+import com.agrotech.model.FollowPosition;
+import com.agrotech.model.SensorColumns;
+import com.agrotech.model.SensorFileFormat;
+import com.agrotech.model.SensorRowSink;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Ingreso por etapas sobre java.util.concurrent.Flow: lectura → parseo → validación → almacén. Cada etapa corre
+// en su propio hilo, entre etapas viajan lotes de filas y los buffers son acotados: el consumidor más lento marca
+// el ritmo de la lectura
+public class IngestPipeline {
+    // Lotes en vuelo por etapa; con bloques de 1 MB son unos pocos MB por etapa
+    private static final int STAGE_BUFFER = 4;
+    // Estimación de filas por byte para dimensionar cada lote
+    private static final int BYTES_PER_ROW = 40;
+
+    private final CSVProcessingService processingService;
+    private final AtomicLong parsedRows;
+    private final AtomicLong rejectedRows;
+    private FollowPosition followPosition;
+
+    public IngestPipeline() {
+        this.processingService = new CSVProcessingService();
+        this.parsedRows = new AtomicLong();
+        this.rejectedRows = new AtomicLong();
+    }
+
+    // Un CSV plano se lee solo hasta size, el tamaño que tenía al empezar la carga
+    public long run(File file, long size, SensorRowSink store, ProgressReporter progress)
+            throws CSVProcessingException {
+        parsedRows.set(0);
+        rejectedRows.set(0);
+        followPosition = null;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            SubmissionPublisher<CsvBlockReader.Block> reader = new SubmissionPublisher<>(executor, STAGE_BUFFER);
+            // El lector se cierra antes que el executor, que espera a que terminen todas las etapas
+            try {
+                MappedCSVParser parser = new MappedCSVParser();
+                FlowStage<CsvBlockReader.Block, SensorColumns> parse =
+                        new FlowStage<>(executor, STAGE_BUFFER, block -> parse(parser, block));
+                FlowStage<SensorColumns, SensorColumns> validate = new FlowStage<>(executor, STAGE_BUFFER, batch -> {
+                    parsedRows.addAndGet(batch.size());
+                    SensorColumns valid = dropInvalid(batch);
+                    rejectedRows.addAndGet(batch.size() - valid.size());
+                    return valid.isEmpty() ? null : valid;
+                });
+                StoreSubscriber storeStage = new StoreSubscriber(store, progress);
+
+                reader.subscribe(parse);
+                parse.subscribe(validate);
+                validate.subscribe(storeStage);
+
+                try {
+                    processingService.forEachCsvStream(file, size, progress,
+                            in -> new CsvBlockReader().read(in, reader));
+                } catch (CSVProcessingException e) {
+                    reader.closeExceptionally(e);
+                    throw e;
+                }
+                reader.close();
+
+                long rows = storeStage.completion.get();
+                // Cada línea es una fila: las parseadas, antes de validar, son las líneas leídas
+                if (!SensorFileFormat.of(file).isCompressed()) {
+                    followPosition = parser.followPosition(file, size, parsedRows.get());
+                }
+                reportRejected(rejectedRows.get());
+                return rows;
+            } finally {
+                reader.close();
+            }
+        } catch (ExecutionException | CompletionException e) {
+            if (e.getCause() instanceof CSVProcessingException cause) {
+                throw cause;
+            }
+            throw new CSVProcessingException("Error al procesar el archivo: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CSVProcessingException("Procesamiento interrumpido");
+        }
+    }
+
+    // Hasta dónde llegó la última carga; null si el archivo era comprimido
+    public FollowPosition getFollowPosition() {
+        return followPosition;
+    }
+
+    private static SensorColumns parse(MappedCSVParser parser, CsvBlockReader.Block block)
+            throws CSVProcessingException {
+        SensorColumns batch = new SensorColumns(block.bytes().remaining() / BYTES_PER_ROW);
+        parser.parseBlock(block.bytes(), block.firstLine(), block.mapping(), batch);
+        return batch;
+    }
+
+    // La misma validación para las cargas que parsean fuera del pipeline, así el resultado no depende del camino;
+    // también informa cuántas filas descartó
+    public static SensorColumns validate(SensorColumns batch) {
+        SensorColumns valid = dropInvalid(batch);
+        reportRejected(batch.size() - valid.size());
+        return valid;
+    }
+
+    private static void reportRejected(long rows) {
+        if (rows > 0) {
+            System.out.println("Lecturas descartadas por valores no numéricos: " + rows);
+        }
+    }
+
+    // Etapa de validación: descarta filas con NaN o infinitos (un sensor desconectado se reporta como "NaN").
+    // El lote solo se copia si contiene alguna
+    private static SensorColumns dropInvalid(SensorColumns batch) {
+        int invalid = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            if (!isValid(batch, i)) {
+                invalid++;
+            }
+        }
+        if (invalid == 0) {
+            return batch;
+        }
+
+        SensorColumns valid = new SensorColumns(batch.size() - invalid);
+        for (int i = 0; i < batch.size(); i++) {
+            if (isValid(batch, i)) {
+                valid.accept(batch.epochSecond(i), batch.soilHumidity(i), batch.airTemperature(i),
+                        batch.airHumidity(i), batch.irrigationStatus(i));
+            }
+        }
+        return valid;
+    }
+
+    private static boolean isValid(SensorColumns batch, int row) {
+        return Double.isFinite(batch.soilHumidity(row))
+                && Double.isFinite(batch.airTemperature(row))
+                && Double.isFinite(batch.airHumidity(row));
+    }
+
+    // Etapa final: vuelca cada lote en el almacén y recién entonces pide el siguiente
+    private static class StoreSubscriber implements Flow.Subscriber<SensorColumns> {
+        private final SensorRowSink store;
+        private final ProgressReporter progress;
+        private final CompletableFuture<Long> completion = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+        private long rows;
+
+        StoreSubscriber(SensorRowSink store, ProgressReporter progress) {
+            this.store = store;
+            this.progress = progress;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(SensorColumns batch) {
+            try {
+                batch.forEach(store);
+                rows += batch.size();
+                if (progress != null) {
+                    progress.advance(0, batch.size());
+                }
+                subscription.request(1);
+            } catch (RuntimeException e) {
+                subscription.cancel();
+                completion.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            completion.completeExceptionally(error);
+        }
+
+        @Override
+        public void onComplete() {
+            completion.complete(rows);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.agrotech.service;
+
+import com.agrotech.exception.FileValidationException;
+import com.agrotech.model.ColumnMapping;
+import com.agrotech.model.SensorData;
+import com.agrotech.model.SensorRowSink;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+// Protocolo de líneas del logger: una lectura CSV por línea en el orden por defecto. Una línea que empieza
+// con letra es un header y redefine el orden de columnas (el logger lo reenvía al reconectarse)
+public abstract class LineSensorSource implements SensorSource {
+    private volatile boolean closed;
+    private volatile long rejectedLines;
+
+    protected void readLines(BufferedReader reader, SensorRowSink sink) throws IOException {
+        ColumnMapping mapping = ColumnMapping.DEFAULT;
+        String line;
+        while (!closed && (line = reader.readLine()) != null) {
+            String trimmed = line.strip();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+
+            try {
+                if (Character.isLetter(trimmed.charAt(0))) {
+                    mapping = ColumnMapping.fromHeader(trimmed);
+                    continue;
+                }
+                String[] parts = trimmed.split(",", -1);
+                if (parts.length != mapping.columnCount()) {
+                    rejectedLines++;
+                    continue;
+                }
+                SensorData data = SensorData.fromCsvFields(parts, mapping);
+                onReading(data.epochSecond());
+                sink.accept(data.epochSecond(), data.soilHumidity(), data.airTemperature(),
+                        data.airHumidity(), data.irrigationStatus());
+            } catch (FileValidationException | RuntimeException e) {
+                // Ruido en la línea serie: se descarta la línea y se sigue leyendo
+                rejectedLines++;
+            }
+        }
+    }
+
+    // Punto de extensión para fuentes que regulan el ritmo de entrega
+    protected void onReading(long epochSecond) {
+    }
+
+    protected boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public long getRejectedLines() {
+        return rejectedLines;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
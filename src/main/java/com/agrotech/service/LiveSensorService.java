@@ -0,0 +1,72 @@
+package com.agrotech.service;
+
+import com.agrotech.model.OverflowPolicy;
+import com.agrotech.model.SensorRingBuffer;
+import com.agrotech.model.SensorRowSink;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Ejecuta cada SensorSource en un hilo lector propio. Todos escriben en el mismo buffer circular y la UI
+// retira las lecturas en lote con drainTo(), a su propio ritmo: no hay un traspaso por cada lectura
+public class LiveSensorService implements AutoCloseable {
+    // 64K lecturas: más de un minuto a 1 kHz agregado sin que la UI consuma
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final SensorRingBuffer ringBuffer;
+    private final List<SensorSource> sources = new CopyOnWriteArrayList<>();
+
+    public LiveSensorService() {
+        // BLOCK no pierde lecturas: si la UI se atrasa, el lector deja de leer y el emisor espera
+        this(DEFAULT_CAPACITY, OverflowPolicy.BLOCK);
+    }
+
+    public LiveSensorService(int capacity, OverflowPolicy policy) {
+        this.ringBuffer = new SensorRingBuffer(capacity, policy);
+    }
+
+    // Agrega una fuente; varias fuentes pueden leer a la vez
+    public void start(SensorSource source, Consumer<Exception> onError) {
+        sources.add(source);
+        Thread readerThread = new Thread(() -> {
+            try {
+                source.read(ringBuffer);
+            } catch (IOException | RuntimeException e) {
+                if (sources.contains(source)) {
+                    onError.accept(e);
+                }
+            } finally {
+                sources.remove(source);
+            }
+        }, "sensor-reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+    }
+
+    // Entrega al sink las lecturas publicadas desde la última llamada
+    public int drainTo(SensorRowSink sink) {
+        return ringBuffer.drainTo(sink);
+    }
+
+    public boolean isRunning() {
+        return !sources.isEmpty();
+    }
+
+    public long getDroppedReadings() {
+        return ringBuffer.getDropped();
+    }
+
+    public void stop() {
+        for (SensorSource source : sources) {
+            sources.remove(source);
+            source.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+}
@@ -0,0 +1,504 @@
+package com.agrotech.service;
+
+import com.agrotech.exception.CSVProcessingException;
+import com.agrotech.exception.FileValidationException;
+import com.agrotech.model.ColumnMapping;
+import com.agrotech.model.FollowPosition;
+import com.agrotech.model.SensorRowSink;
+import com.agrotech.model.SensorTimestamp;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+
+public class MappedCSVParser {
+    private static final long WINDOW_SIZE = 256L * 1024 * 1024;
+    private static final int HEADER_PROBE_SIZE = 64 * 1024;
+    private static final int STREAM_BUFFER_SIZE = 4 * 1024 * 1024;
+    private static final int PROGRESS_INTERVAL = 4096;
+    // Con 15 dígitos la mantisa cabe exacta en un double y la división por 10^n queda bien redondeada
+    private static final int MAX_FAST_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    private int cursor;
+    private long cursorLines;
+
+    public long parse(File file, SensorRowSink sink, ProgressReporter progress)
+            throws CSVProcessingException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long dataStart = findDataStart(channel, size);
+            ColumnMapping mapping = readColumnMapping(channel, dataStart);
+            if (progress != null) {
+                progress.advance(dataStart, 0);
+            }
+            long rows = parseRange(channel, dataStart, size, 0, mapping, sink, progress);
+            if (rows == 0) {
+                throw new CSVProcessingException("El archivo no contiene datos");
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new CSVProcessingException("Error al leer el archivo: " + e.getMessage());
+        }
+    }
+
+    // Para entradas que no se pueden mapear (p. ej. descomprimidas): mismo parser sobre un buffer reutilizable.
+    // Solo reporta filas; los bytes los reporta quien lee el archivo en disco
+    public long parseStream(InputStream in, SensorRowSink sink, ProgressReporter progress)
+            throws IOException, CSVProcessingException {
+        byte[] bytes = new byte[STREAM_BUFFER_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int filled = fill(in, bytes, 0);
+        boolean eof = filled < bytes.length;
+
+        int headerEnd = indexOf(buffer, (byte) '\n', 0, filled);
+        if (headerEnd < 0 && !eof) {
+            throw new CSVProcessingException("El header del archivo es demasiado largo");
+        }
+        int start = headerEnd < 0 ? filled : headerEnd + 1;
+        ColumnMapping mapping = toColumnMapping(new String(bytes, 0, start, StandardCharsets.UTF_8));
+        long line = 0;
+        long reportedLine = 0;
+
+        while (true) {
+            int limit = eof ? filled : lastIndexOf(buffer, (byte) '\n', filled) + 1;
+            if (limit == 0 && !eof) {
+                throw new CSVProcessingException(line + 1, "la línea excede el tamaño máximo");
+            }
+
+            start = parseLines(buffer, start, limit, line, mapping, sink);
+            line += cursorLines;
+            if (progress != null) {
+                progress.advance(0, line - reportedLine);
+                reportedLine = line;
+            }
+            if (eof) {
+                break;
+            }
+
+            // La línea parcial pasa al inicio del buffer y se completa con la siguiente lectura
+            int remaining = filled - start;
+            System.arraycopy(bytes, start, bytes, 0, remaining);
+            filled = fill(in, bytes, remaining);
+            eof = filled < bytes.length;
+            start = 0;
+        }
+
+        if (line == 0) {
+            throw new CSVProcessingException("El archivo no contiene datos");
+        }
+        return line;
+    }
+
+    // Parsea un bloque que contiene solo líneas completas; firstLine es el número de línea previo al bloque
+    public long parseBlock(ByteBuffer block, long firstLine, ColumnMapping mapping, SensorRowSink sink)
+            throws CSVProcessingException {
+        parseLines(block, block.position(), block.limit(), firstLine, mapping, sink);
+        return cursorLines;
+    }
+
+    // Parsea las líneas de [start, limit) y devuelve la posición final; la cantidad queda en cursorLines
+    private int parseLines(ByteBuffer buffer, int start, int limit, long firstLine,
+                           ColumnMapping mapping, SensorRowSink sink) throws CSVProcessingException {
+        boolean defaultLayout = mapping.isDefaultLayout();
+        long line = firstLine;
+        while (start < limit) {
+            line++;
+            if (defaultLayout) {
+                start = parseRowAt(buffer, start, limit, line, sink);
+            } else {
+                start = parseMappedRowAt(buffer, start, limit, line, mapping, sink);
+            }
+        }
+        cursorLines = line - firstLine;
+        return start;
+    }
+
+    private static int fill(InputStream in, byte[] bytes, int offset) throws IOException {
+        while (offset < bytes.length) {
+            int read = in.read(bytes, offset, bytes.length - offset);
+            if (read < 0) {
+                break;
+            }
+            offset += read;
+        }
+        return offset;
+    }
+
+    // Posición de seguimiento tras una carga que parseó los primeros size bytes del archivo, con lines líneas de
+    // datos en total (contando una final sin '\n'). Con lines < 0 se cuentan recorriendo el archivo
+    public FollowPosition followPosition(File file, long size, long lines) throws CSVProcessingException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long end = Math.min(size, channel.size());
+            long dataStart = findDataStart(channel, end);
+            ColumnMapping mapping = readColumnMapping(channel, dataStart);
+            long offset = findLastLineEnd(channel, dataStart, end);
+            long completeLines = lines < 0 ? countLines(channel, dataStart, offset) : offset < end ? lines - 1 : lines;
+            long partialEpochSecond = offset < end
+                    ? parsePartialLine(channel, offset, end, completeLines, mapping) : Long.MIN_VALUE;
+            return new FollowPosition(offset, completeLines, partialEpochSecond);
+        } catch (IOException e) {
+            throw new CSVProcessingException("Error al leer el archivo: " + e.getMessage());
+        }
+    }
+
+    private long parsePartialLine(FileChannel channel, long from, long to, long firstLine, ColumnMapping mapping)
+            throws IOException {
+        long[] epochSecond = {Long.MIN_VALUE};
+        try {
+            parseRange(channel, from, to, firstLine, mapping,
+                    (epoch, soilHumidity, airTemperature, airHumidity, irrigationStatus) -> epochSecond[0] = epoch,
+                    null);
+        } catch (CSVProcessingException e) {
+            // Una línea que todavía no se puede parsear tampoco entró en la carga
+        }
+        return epochSecond[0];
+    }
+
+    long findDataStart(FileChannel channel, long size) throws IOException {
+        long position = 0;
+        while (position < size) {
+            long length = Math.min(HEADER_PROBE_SIZE, size - position);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            int newline = indexOf(buffer, (byte) '\n', 0, (int) length);
+            if (newline >= 0) {
+                return position + newline + 1;
+            }
+            position += length;
+        }
+        return size;
+    }
+
+    // Posición tras el último '\n' de [from, to), o from si el rango no contiene líneas completas
+    long findLastLineEnd(FileChannel channel, long from, long to) throws IOException {
+        long position = to;
+        while (position > from) {
+            long length = Math.min(HEADER_PROBE_SIZE, position - from);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position - length, length);
+            int newline = lastIndexOf(buffer, (byte) '\n', (int) length);
+            if (newline >= 0) {
+                return position - length + newline + 1;
+            }
+            position -= length;
+        }
+        return from;
+    }
+
+    long countLines(FileChannel channel, long from, long to) throws IOException {
+        long lines = 0;
+        for (long position = from; position < to; position += WINDOW_SIZE) {
+            long length = Math.min(WINDOW_SIZE, to - position);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            for (int i = 0; i < length; i++) {
+                if (buffer.get(i) == '\n') {
+                    lines++;
+                }
+            }
+        }
+        return lines;
+    }
+
+    // El header se lee una sola vez y se valida aquí mismo, sin una pasada previa sobre el archivo
+    ColumnMapping readColumnMapping(FileChannel channel, long dataStart) throws IOException, CSVProcessingException {
+        if (dataStart > Integer.MAX_VALUE) {
+            throw new CSVProcessingException("El header del archivo es demasiado largo");
+        }
+        ByteBuffer header = ByteBuffer.allocate((int) dataStart);
+        int read;
+        do {
+            read = channel.read(header, header.position());
+        } while (read > 0 && header.hasRemaining());
+        return toColumnMapping(new String(header.array(), 0, header.position(), StandardCharsets.UTF_8));
+    }
+
+    static ColumnMapping toColumnMapping(String header) throws CSVProcessingException {
+        try {
+            return ColumnMapping.fromHeader(header.strip());
+        } catch (FileValidationException e) {
+            throw new CSVProcessingException(e.getMessage());
+        }
+    }
+
+    // Parsea las líneas completas del rango [start, end); start debe coincidir con el inicio de una línea
+    long parseRange(FileChannel channel, long start, long end, long firstLine,
+                    ColumnMapping mapping, SensorRowSink sink, ProgressReporter progress)
+            throws IOException, CSVProcessingException {
+        long position = start;
+        long line = firstLine;
+        long reportedPosition = start;
+        long reportedLine = firstLine;
+        boolean defaultLayout = mapping.isDefaultLayout();
+
+        while (position < end) {
+            long windowSize = Math.min(WINDOW_SIZE, end - position);
+            boolean lastWindow = position + windowSize == end;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+            int limit = lastWindow ? (int) windowSize : lastIndexOf(buffer, (byte) '\n', (int) windowSize) + 1;
+            int lineStart = 0;
+
+            // Dentro de [0, limit) todas las líneas están completas; la última parcial se vuelve a mapear
+            while (lineStart < limit) {
+                line++;
+                if (defaultLayout) {
+                    lineStart = parseRowAt(buffer, lineStart, limit, line, sink);
+                } else {
+                    lineStart = parseMappedRowAt(buffer, lineStart, limit, line, mapping, sink);
+                }
+
+                if (progress != null && line - reportedLine == PROGRESS_INTERVAL) {
+                    progress.advance(position + lineStart - reportedPosition, line - reportedLine);
+                    reportedPosition = position + lineStart;
+                    reportedLine = line;
+                }
+            }
+
+            if (lineStart == 0) {
+                throw new CSVProcessingException(line + 1, "la línea excede el tamaño máximo");
+            }
+            position = Math.min(end, position + lineStart);
+        }
+
+        if (progress != null) {
+            progress.advance(end - reportedPosition, line - reportedLine);
+        }
+        return line - firstLine;
+    }
+
+    // Camino rápido para el orden de columnas por defecto; ante cualquier irregularidad usa el camino general
+    private int parseRowAt(ByteBuffer buffer, int from, int limit, long line, SensorRowSink sink)
+            throws CSVProcessingException {
+        int p = skipSpaces(buffer, from, limit);
+        long epochSecond = p + SensorTimestamp.LENGTH <= limit ? SensorTimestamp.parseEpochSecond(buffer, p) : SensorTimestamp.INVALID;
+        if (epochSecond != SensorTimestamp.INVALID) {
+            cursor = skipSpaces(buffer, p + SensorTimestamp.LENGTH, limit);
+            double soilHumidity = fastDecimal(buffer, cursor, limit, (byte) ',');
+            double airTemperature = fastDecimal(buffer, cursor, limit, (byte) ',');
+            double airHumidity = fastDecimal(buffer, cursor, limit, (byte) ',');
+            if (cursor >= 0 && cursor < limit && buffer.get(cursor) == ',') {
+                int flagStart = skipSpaces(buffer, cursor + 1, limit);
+                int end = flagStart;
+                while (end < limit && buffer.get(end) != '\n') {
+                    end++;
+                }
+                int flagEnd = trimEnd(buffer, flagStart, end);
+                if (indexOf(buffer, (byte) ',', flagStart, flagEnd) < 0) {
+                    sink.accept(epochSecond, soilHumidity, airTemperature, airHumidity,
+                            flagEnd - flagStart == 1 && buffer.get(flagStart) == '1');
+                    return end + 1;
+                }
+            }
+        }
+
+        return parseMappedRowAt(buffer, from, limit, line, ColumnMapping.DEFAULT, sink);
+    }
+
+    // Camino general: recorre los campos según el header y descarta las columnas adicionales
+    private int parseMappedRowAt(ByteBuffer buffer, int from, int limit, long line,
+                                 ColumnMapping mapping, SensorRowSink sink) throws CSVProcessingException {
+        int lineEnd = indexOf(buffer, (byte) '\n', from, limit);
+        if (lineEnd < 0) {
+            lineEnd = limit;
+        }
+
+        int fields = countFields(buffer, from, lineEnd);
+        if (fields != mapping.columnCount()) {
+            throw new CSVProcessingException(line, String.format(
+                    "Formato inválido: se esperaban %d campos pero se encontraron %d",
+                    mapping.columnCount(), fields));
+        }
+
+        long epochSecond = 0;
+        double soilHumidity = 0;
+        double airTemperature = 0;
+        double airHumidity = 0;
+        boolean irrigationStatus = false;
+        int fieldStart = from;
+        try {
+            for (int column = 0; column < fields; column++) {
+                int fieldEnd = column == fields - 1 ? lineEnd : indexOf(buffer, (byte) ',', fieldStart, lineEnd);
+                switch (mapping.fieldAt(column)) {
+                    case ColumnMapping.TIMESTAMP -> epochSecond = parseTimestamp(buffer, fieldStart, fieldEnd);
+                    case ColumnMapping.SOIL_HUMIDITY -> soilHumidity = parseDecimal(buffer, fieldStart, fieldEnd);
+                    case ColumnMapping.AIR_TEMPERATURE -> airTemperature = parseDecimal(buffer, fieldStart, fieldEnd);
+                    case ColumnMapping.AIR_HUMIDITY -> airHumidity = parseDecimal(buffer, fieldStart, fieldEnd);
+                    case ColumnMapping.IRRIGATION_STATUS -> irrigationStatus = parseFlag(buffer, fieldStart, fieldEnd);
+                    default -> {
+                        // Columna adicional: no se decodifica
+                    }
+                }
+                fieldStart = fieldEnd + 1;
+            }
+        } catch (IllegalArgumentException e) {
+            throw new CSVProcessingException(line, "Error al parsear línea: " + e.getMessage());
+        }
+
+        sink.accept(epochSecond, soilHumidity, airTemperature, airHumidity, irrigationStatus);
+        return lineEnd + 1;
+    }
+
+    // Espera el separador en from; deja cursor sobre el siguiente separador o en -1 si el campo no es simple
+    private double fastDecimal(ByteBuffer buffer, int from, int limit, byte separator) {
+        if (from < 0 || from >= limit || buffer.get(from) != separator) {
+            cursor = -1;
+            return 0;
+        }
+        int i = skipSpaces(buffer, from + 1, limit);
+        boolean negative = i < limit && buffer.get(i) == '-';
+        if (negative) {
+            i++;
+        }
+
+        long mantissa = 0;
+        int digitCount = 0;
+        int fractionDigits = 0;
+        boolean inFraction = false;
+        for (; i < limit; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digitCount++;
+                fractionDigits += inFraction ? 1 : 0;
+            } else if (b == '.' && !inFraction) {
+                inFraction = true;
+            } else {
+                break;
+            }
+        }
+
+        if (digitCount == 0 || digitCount > MAX_FAST_DIGITS) {
+            cursor = -1;
+            return 0;
+        }
+        cursor = skipSpaces(buffer, i, limit);
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    private long parseTimestamp(ByteBuffer buffer, int from, int to) {
+        int start = trimStart(buffer, from, to);
+        int end = trimEnd(buffer, start, to);
+        if (end - start == SensorTimestamp.LENGTH) {
+            long epochSecond = SensorTimestamp.parseEpochSecond(buffer, start);
+            if (epochSecond != SensorTimestamp.INVALID) {
+                return epochSecond;
+            }
+        }
+
+        try {
+            return SensorTimestamp.parseEpochSecond(text(buffer, start, end));
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("timestamp inválido: " + text(buffer, start, end));
+        }
+    }
+
+    private double parseDecimal(ByteBuffer buffer, int from, int to) {
+        int start = trimStart(buffer, from, to);
+        int end = trimEnd(buffer, start, to);
+        int i = start;
+        boolean negative = false;
+        if (i < end && buffer.get(i) == '-') {
+            negative = true;
+            i++;
+        }
+
+        long mantissa = 0;
+        int digitCount = 0;
+        int fractionDigits = 0;
+        boolean inFraction = false;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digitCount++;
+                if (inFraction) {
+                    fractionDigits++;
+                }
+            } else if (b == '.' && !inFraction) {
+                inFraction = true;
+            } else {
+                break;
+            }
+        }
+
+        if (i != end || digitCount == 0 || digitCount > MAX_FAST_DIGITS) {
+            // Exponentes, signos explícitos o demasiados dígitos: se delega en el parser estándar
+            try {
+                return Double.parseDouble(text(buffer, start, end));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("valor numérico inválido: " + text(buffer, start, end));
+            }
+        }
+
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    private boolean parseFlag(ByteBuffer buffer, int from, int to) {
+        int start = trimStart(buffer, from, to);
+        int end = trimEnd(buffer, start, to);
+        return end - start == 1 && buffer.get(start) == '1';
+    }
+
+    private static int lastIndexOf(ByteBuffer buffer, byte target, int to) {
+        for (int i = to - 1; i >= 0; i--) {
+            if (buffer.get(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipSpaces(ByteBuffer buffer, int from, int to) {
+        while (from < to && buffer.get(from) == ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte target, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int countFields(ByteBuffer buffer, int from, int to) {
+        int fields = 1;
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == ',') {
+                fields++;
+            }
+        }
+        return fields;
+    }
+
+    private static int trimStart(ByteBuffer buffer, int from, int to) {
+        while (from < to && (buffer.get(from) & 0xFF) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private static int trimEnd(ByteBuffer buffer, int from, int to) {
+        while (to > from && (buffer.get(to - 1) & 0xFF) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    private static String text(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
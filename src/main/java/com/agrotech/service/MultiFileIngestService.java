@@ -0,0 +1,220 @@
+package com.agrotech.service;
+
+import com.agrotech.exception.CSVProcessingException;
+import com.agrotech.exception.FileValidationException;
+import com.agrotech.model.FollowPosition;
+import com.agrotech.model.SensorDataset;
+import com.agrotech.model.SensorFileFormat;
+import com.agrotech.model.SensorRowSink;
+import com.agrotech.model.SensorStore;
+import com.agrotech.model.SourceFingerprint;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+// Carga varios CSV (p. ej. uno por día) en paralelo y los une en un solo dataset ordenado por timestamp
+public class MultiFileIngestService {
+    private final FileValidationService validationService;
+    private final SensorSnapshotService snapshotService;
+    private final CSVProcessingService processingService;
+
+    public MultiFileIngestService() {
+        this.validationService = new FileValidationService();
+        this.snapshotService = new SensorSnapshotService();
+        this.processingService = new CSVProcessingService();
+    }
+
+    // Las carpetas se expanden a los .csv (o comprimidos) que contienen, en orden alfabético
+    public List<File> expandFiles(List<File> selection) {
+        List<File> files = new ArrayList<>();
+        for (File file : selection) {
+            if (file.isDirectory()) {
+                File[] children = file.listFiles(child -> child.isFile() && SensorFileFormat.isSupported(child));
+                if (children != null) {
+                    Arrays.sort(children, Comparator.comparing(File::getName));
+                    files.addAll(Arrays.asList(children));
+                }
+            } else {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    // Bytes en disco, sobre los que se mide el avance
+    public long totalSize(List<File> files) {
+        return files.stream().mapToLong(File::length).sum();
+    }
+
+    // Tamaño de los CSV ya descomprimidos, para elegir el almacén
+    public long estimatedUncompressedSize(List<File> files) {
+        return files.stream()
+                .mapToLong(file -> SensorFileFormat.of(file).estimateUncompressedSize(file.length()))
+                .sum();
+    }
+
+    // Un hilo virtual por archivo; cada uno valida su archivo y lo parsea a un fragmento propio, o abre su snapshot
+    // si el archivo no cambió. Los fragmentos se mezclan por timestamp hacia target y se liberan al terminar.
+    // Devuelve hasta dónde se leyó el último archivo, el que el logger sigue escribiendo
+    public FollowPosition ingest(List<File> files, Supplier<? extends SensorStore> partStores, boolean compressedSnapshots,
+                       SensorRowSink target, ProgressReporter progress)
+            throws FileValidationException, CSVProcessingException {
+        if (files.isEmpty()) {
+            throw new FileValidationException("No se encontraron archivos CSV para cargar");
+        }
+
+        List<Future<LoadedFile>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (File file : files) {
+                results.add(executor.submit(() -> loadFile(file, partStores, compressedSnapshots, progress)));
+            }
+        }
+
+        List<SensorStore> parts = new ArrayList<>(files.size());
+        FollowPosition lastPosition = null;
+        try {
+            for (int i = 0; i < results.size(); i++) {
+                LoadedFile loaded = await(results.get(i), files.get(i));
+                parts.add(loaded.store());
+                lastPosition = loaded.position();
+            }
+            merge(parts, target);
+            return lastPosition;
+        } finally {
+            parts.forEach(SensorStore::close);
+            // Si falló un archivo, los fragmentos de los siguientes ya se cargaron igual
+            for (int i = parts.size() + 1; i < results.size(); i++) {
+                if (results.get(i).state() == Future.State.SUCCESS) {
+                    results.get(i).resultNow().store().close();
+                }
+            }
+        }
+    }
+
+    private record LoadedFile(SensorStore store, FollowPosition position) {}
+
+    private LoadedFile loadFile(File file, Supplier<? extends SensorStore> partStores, boolean compressedSnapshot,
+                                 ProgressReporter progress) throws FileValidationException, CSVProcessingException {
+        validationService.validateFile(file);
+        SourceFingerprint fingerprint;
+        try {
+            fingerprint = snapshotService.fingerprint(file);
+        } catch (IOException e) {
+            throw new CSVProcessingException("Error al leer el archivo: " + e.getMessage());
+        }
+        SensorStore snapshot = snapshotService.load(file, fingerprint);
+        if (snapshot != null) {
+            if (progress != null) {
+                progress.advance(file.length(), snapshot.size());
+            }
+            try {
+                return new LoadedFile(snapshot, processingService.followPosition(file, fingerprint.size()));
+            } catch (CSVProcessingException e) {
+                snapshot.close();
+                throw e;
+            }
+        }
+
+        SensorStore part = partStores.get();
+        IngestPipeline pipeline = new IngestPipeline();
+        try {
+            pipeline.run(file, fingerprint.size(), part, progress);
+        } catch (CSVProcessingException e) {
+            part.close();
+            throw e;
+        }
+        try {
+            snapshotService.save(file, fingerprint, part, compressedSnapshot);
+        } catch (IOException e) {
+            // Sin snapshot la próxima carga vuelve a parsear el archivo
+            System.err.println("No se pudo guardar el snapshot de " + file.getName() + ": " + e.getMessage());
+        }
+        return new LoadedFile(part, pipeline.getFollowPosition());
+    }
+
+    private LoadedFile await(Future<LoadedFile> result, File file)
+            throws FileValidationException, CSVProcessingException {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            String message = file.getName() + ": " + e.getCause().getMessage();
+            if (e.getCause() instanceof FileValidationException) {
+                throw new FileValidationException(message);
+            }
+            throw new CSVProcessingException(message);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CSVProcessingException("Carga interrumpida: " + file.getName());
+        }
+    }
+
+    // Mezcla k-way con un heap de índices de fragmento; ante timestamps iguales conserva el orden de archivos.
+    // Las filas se entregan a target a medida que salen, sin armar el dataset completo en memoria
+    public void merge(List<? extends SensorDataset> parts, SensorRowSink target) throws CSVProcessingException {
+        long total = parts.stream().mapToLong(SensorDataset::size).sum();
+        if (total > Integer.MAX_VALUE) {
+            throw new CSVProcessingException("Los archivos exceden el número máximo de filas soportado");
+        }
+
+        int[] positions = new int[parts.size()];
+        int[] heap = new int[parts.size()];
+        int heapSize = 0;
+        for (int part = 0; part < parts.size(); part++) {
+            if (!parts.get(part).isEmpty()) {
+                heap[heapSize++] = part;
+            }
+        }
+        for (int i = heapSize / 2 - 1; i >= 0; i--) {
+            siftDown(heap, heapSize, i, parts, positions);
+        }
+
+        while (heapSize > 0) {
+            int part = heap[0];
+            SensorDataset source = parts.get(part);
+            int row = positions[part]++;
+            target.accept(source.epochSecond(row), source.soilHumidity(row), source.airTemperature(row),
+                    source.airHumidity(row), source.irrigationStatus(row));
+
+            if (positions[part] == source.size()) {
+                heap[0] = heap[--heapSize];
+            }
+            siftDown(heap, heapSize, 0, parts, positions);
+        }
+    }
+
+    private void siftDown(int[] heap, int heapSize, int index, List<? extends SensorDataset> parts, int[] positions) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < heapSize && before(heap[left], heap[smallest], parts, positions)) {
+                smallest = left;
+            }
+            if (right < heapSize && before(heap[right], heap[smallest], parts, positions)) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            int swap = heap[index];
+            heap[index] = heap[smallest];
+            heap[smallest] = swap;
+            index = smallest;
+        }
+    }
+
+    private boolean before(int a, int b, List<? extends SensorDataset> parts, int[] positions) {
+        long epochA = parts.get(a).epochSecond(positions[a]);
+        long epochB = parts.get(b).epochSecond(positions[b]);
+        return epochA < epochB || (epochA == epochB && a < b);
+    }
+}
@@ -0,0 +1,62 @@
+package com.agrotech.service;
+
+import com.agrotech.model.SensorRowSink;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Named pipe (FIFO en Unix, \\.\pipe\... en Windows) escrito por el puente serie. Al cerrarse el escritor
+// la lectura termina con EOF y el pipe se vuelve a abrir a la espera del siguiente
+public class NamedPipeSensorSource extends LineSensorSource {
+    private final Path pipe;
+    private volatile InputStream current;
+
+    public NamedPipeSensorSource(Path pipe) {
+        this.pipe = pipe;
+    }
+
+    @Override
+    public void read(SensorRowSink sink) throws IOException {
+        while (!isClosed()) {
+            // La apertura bloquea hasta que haya un escritor; close() no puede interrumpirla
+            try (InputStream in = Files.newInputStream(pipe)) {
+                current = in;
+                readLines(new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII)), sink);
+                if (Files.isRegularFile(pipe)) {
+                    // Un archivo común se lee una sola vez
+                    return;
+                }
+            } catch (IOException e) {
+                if (isClosed()) {
+                    return;
+                }
+                throw e;
+            } finally {
+                current = null;
+            }
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "Pipe " + pipe;
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        InputStream in = current;
+        if (in != null) {
+            try {
+                in.close();
+            } catch (IOException e) {
+                System.err.println("Error al cerrar el pipe de sensores: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.agrotech.service;
+
+import com.agrotech.exception.CSVProcessingException;
+import com.agrotech.model.ColumnMapping;
+import com.agrotech.model.SensorColumns;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+public class ParallelCSVParser {
+    private static final long MIN_CHUNK_SIZE = 8L * 1024 * 1024;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int ALIGN_PROBE_SIZE = 8 * 1024;
+    // Estimación de bytes por fila para dimensionar las columnas de cada fragmento
+    private static final int ESTIMATED_ROW_SIZE = 40;
+
+    private final ForkJoinPool pool;
+
+    public ParallelCSVParser() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelCSVParser(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // Solo se parsean los primeros limit bytes: lo que el logger agregue mientras tanto queda para el seguimiento
+    public SensorColumns parse(File file, long limit, ProgressReporter progress) throws CSVProcessingException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = Math.min(limit, channel.size());
+            MappedCSVParser headerParser = new MappedCSVParser();
+            long dataStart = headerParser.findDataStart(channel, size);
+            ColumnMapping mapping = headerParser.readColumnMapping(channel, dataStart);
+            List<Long> boundaries = splitIntoChunks(channel, dataStart, size);
+            if (progress != null) {
+                progress.advance(dataStart, 0);
+            }
+
+            List<ChunkTask> tasks = new ArrayList<>();
+            for (int i = 0; i + 1 < boundaries.size(); i++) {
+                tasks.add(new ChunkTask(channel, boundaries.get(i), boundaries.get(i + 1), mapping, progress));
+            }
+
+            pool.invoke(new RecursiveTask<Void>() {
+                @Override
+                protected Void compute() {
+                    ForkJoinTask.invokeAll(tasks);
+                    return null;
+                }
+            });
+
+            SensorColumns result = merge(tasks);
+            if (result.isEmpty()) {
+                throw new CSVProcessingException("El archivo no contiene datos");
+            }
+            return result;
+        } catch (IOException e) {
+            throw new CSVProcessingException("Error al leer el archivo: " + e.getMessage());
+        }
+    }
+
+    // Une los fragmentos en orden de archivo; el primer error encontrado se reporta con su línea real
+    private SensorColumns merge(List<ChunkTask> tasks) throws CSVProcessingException {
+        long totalRows = 0;
+        long lineOffset = 0;
+        for (ChunkTask task : tasks) {
+            ChunkResult result = task.join();
+            if (result.error() != null) {
+                throw result.error().withLineOffset(lineOffset);
+            }
+            lineOffset += result.lines();
+            totalRows += result.columns().size();
+        }
+        if (totalRows > Integer.MAX_VALUE) {
+            throw new CSVProcessingException("El archivo excede el número máximo de filas soportado");
+        }
+
+        SensorColumns merged = new SensorColumns((int) totalRows);
+        for (ChunkTask task : tasks) {
+            merged.appendAll(task.join().columns());
+        }
+        return merged;
+    }
+
+    private List<Long> splitIntoChunks(FileChannel channel, long dataStart, long size) throws IOException {
+        long dataSize = size - dataStart;
+        int parallelism = pool.getParallelism() * CHUNKS_PER_THREAD;
+        int chunkCount = (int) Math.max(1, Math.min(parallelism, dataSize / MIN_CHUNK_SIZE));
+        long chunkSize = dataSize / chunkCount;
+
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(dataStart);
+        for (int i = 1; i < chunkCount; i++) {
+            long aligned = alignToLineStart(channel, dataStart + i * chunkSize, size);
+            if (aligned > boundaries.getLast() && aligned < size) {
+                boundaries.add(aligned);
+            }
+        }
+        boundaries.add(size);
+        return boundaries;
+    }
+
+    // Avanza hasta el byte siguiente al primer '\n' encontrado desde position - 1
+    private long alignToLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(ALIGN_PROBE_SIZE);
+        long offset = position - 1;
+        while (offset < size) {
+            probe.clear();
+            int read = channel.read(probe, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    private record ChunkResult(SensorColumns columns, long lines, CSVProcessingException error) {}
+
+    private static class ChunkTask extends RecursiveTask<ChunkResult> {
+        private static final long serialVersionUID = 1L;
+
+        // Las tareas nunca se serializan; el canal y el reporter solo viven durante el parseo
+        private final transient FileChannel channel;
+        private final long start;
+        private final long end;
+        private final transient ColumnMapping mapping;
+        private final transient ProgressReporter progress;
+
+        ChunkTask(FileChannel channel, long start, long end, ColumnMapping mapping, ProgressReporter progress) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.mapping = mapping;
+            this.progress = progress;
+        }
+
+        @Override
+        protected ChunkResult compute() {
+            SensorColumns columns = new SensorColumns((int) Math.min(Integer.MAX_VALUE - 8,
+                    (end - start) / ESTIMATED_ROW_SIZE));
+            try {
+                long lines = new MappedCSVParser().parseRange(channel, start, end, 0, mapping, columns, progress);
+                return new ChunkResult(columns, lines, null);
+            } catch (CSVProcessingException e) {
+                return new ChunkResult(columns, columns.size(), e);
+            } catch (IOException e) {
+                return new ChunkResult(columns, columns.size(),
+                        new CSVProcessingException("Error al leer el archivo: " + e.getMessage()));
+            }
+        }
+    }
+}
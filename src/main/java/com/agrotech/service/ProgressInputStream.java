@@ -0,0 +1,33 @@
+package com.agrotech.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Reporta los bytes leídos del archivo en disco, que es la base del avance para archivos comprimidos
+public class ProgressInputStream extends FilterInputStream {
+    private final ProgressReporter progress;
+
+    public ProgressInputStream(InputStream in, ProgressReporter progress) {
+        super(in);
+        this.progress = progress;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0 && progress != null) {
+            progress.advance(1, 0);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0 && progress != null) {
+            progress.advance(read, 0);
+        }
+        return read;
+    }
+}
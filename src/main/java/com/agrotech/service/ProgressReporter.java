@@ -0,0 +1,85 @@
+package com.agrotech.service;
+
+import com.agrotech.model.IngestProgress;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Los parsers solo suman contadores; un hilo aparte muestrea a frecuencia acotada y publica el último valor
+public class ProgressReporter implements AutoCloseable {
+    public static final double DEFAULT_RATE_HZ = 30.0;
+
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final long totalBytes;
+    private final long startNanos;
+    private final Consumer<IngestProgress> listener;
+    private final ScheduledExecutorService sampler;
+    private long lastPublishedBytes = -1;
+
+    private ProgressReporter(long totalBytes, Consumer<IngestProgress> listener) {
+        this.totalBytes = Math.max(1, totalBytes);
+        this.startNanos = System.nanoTime();
+        this.listener = listener;
+        this.sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ingest-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static ProgressReporter start(long totalBytes, Consumer<IngestProgress> listener) {
+        return start(totalBytes, DEFAULT_RATE_HZ, listener);
+    }
+
+    // El muestreo arranca recién con el reporter ya construido
+    public static ProgressReporter start(long totalBytes, double rateHz, Consumer<IngestProgress> listener) {
+        ProgressReporter reporter = new ProgressReporter(totalBytes, listener);
+        long periodNanos = (long) (1_000_000_000L / rateHz);
+        reporter.sampler.scheduleAtFixedRate(reporter::publish, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+        return reporter;
+    }
+
+    // Camino caliente: seguro desde varios hilos y sin bloqueos
+    public void advance(long bytesRead, long rowsRead) {
+        bytes.add(bytesRead);
+        rows.add(rowsRead);
+    }
+
+    public IngestProgress sample() {
+        long bytesRead = bytes.sum();
+        long rowsRead = rows.sum();
+        double seconds = Math.max(1e-9, (System.nanoTime() - startNanos) / 1e9);
+        double bytesPerSecond = bytesRead / seconds;
+        Duration remaining = bytesPerSecond > 0
+                ? Duration.ofMillis((long) (Math.max(0, totalBytes - bytesRead) / bytesPerSecond * 1000))
+                : null;
+        return new IngestProgress(
+                Math.min(1.0, (double) bytesRead / totalBytes),
+                rowsRead,
+                bytesRead,
+                rowsRead / seconds,
+                bytesPerSecond,
+                remaining
+        );
+    }
+
+    private synchronized void publish() {
+        IngestProgress progress = sample();
+        if (progress.bytesProcessed() != lastPublishedBytes) {
+            lastPublishedBytes = progress.bytesProcessed();
+            listener.accept(progress);
+        }
+    }
+
+    // Detiene el muestreo y publica el estado final
+    @Override
+    public void close() {
+        sampler.shutdownNow();
+        publish();
+    }
+}
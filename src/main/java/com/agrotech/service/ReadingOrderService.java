@@ -0,0 +1,231 @@
+package com.agrotech.service;
+
+import com.agrotech.model.ReadingColumn;
+import com.agrotech.model.ReadingFilter;
+import com.agrotech.model.SensorChannel;
+import com.agrotech.model.SensorDataset;
+import com.agrotech.model.SensorRowSink;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+// Orden y filtro de la tabla de lecturas como permutaciones de índices: nunca se copian filas.
+// Un orden null es el del dataset, que ya está ordenado por timestamp. Los valores se leen en una pasada
+// secuencial con forEach y recién después se recorre la permutación: en un almacén comprimido cada bloque se
+// decodifica una vez, en lugar de una vez por fila leída en desorden
+public class ReadingOrderService {
+    private static final long INDEX_MASK = 0xFFFF_FFFFL;
+
+    public int[] sort(SensorDataset data, ReadingColumn column, boolean ascending) {
+        return switch (column) {
+            case TIMESTAMP -> ascending ? null : reversed(data.size());
+            case IRRIGATION -> partition(data, ascending);
+            default -> sortByChannel(data, column.getChannel(), ascending);
+        };
+    }
+
+    // Filas que pasan el filtro, en el orden dado; null si no hay filtro
+    public int[] filter(SensorDataset data, int[] order, ReadingFilter filter) {
+        if (filter.isEmpty()) {
+            return order;
+        }
+        BitSet matching = matchingRows(data, filter);
+        int size = data.size();
+        int count = 0;
+        int[] rows = new int[Math.min(size, 1024)];
+        for (int i = 0; i < size; i++) {
+            int row = order == null ? i : order[i];
+            if (matching.get(row)) {
+                if (count == rows.length) {
+                    rows = Arrays.copyOf(rows, Math.min(size, count + (count >> 1)));
+                }
+                rows[count++] = row;
+            }
+        }
+        return count == rows.length ? rows : Arrays.copyOf(rows, count);
+    }
+
+    // Agrega a un resultado de sort + filter las filas [from, data.size()) que pasan el filtro, en la posición que
+    // tendrían si se volviera a ordenar todo. Cada fila nueva se ubica con búsqueda binaria, así que solo se leen
+    // O(k log n) valores; visible no se modifica
+    public int[] mergeAppended(SensorDataset data, int[] visible, int from, ReadingColumn column, boolean ascending,
+                               ReadingFilter filter) {
+        if (visible == null) {
+            // Sin orden ni filtro las filas nuevas quedan al final
+            return null;
+        }
+        Integer[] added = new Integer[data.size() - from];
+        int count = 0;
+        for (int row = from; row < data.size(); row++) {
+            if (filter.matches(data, row)) {
+                added[count++] = row;
+            }
+        }
+        Arrays.sort(added, 0, count, (a, b) -> compare(data, column, ascending, a, b));
+
+        int[] merged = new int[visible.length + count];
+        int source = 0;
+        int target = 0;
+        for (int i = 0; i < count; i++) {
+            int row = added[i];
+            int position = upperBound(data, visible, source, row, column, ascending);
+            System.arraycopy(visible, source, merged, target, position - source);
+            target += position - source;
+            source = position;
+            merged[target++] = row;
+        }
+        System.arraycopy(visible, source, merged, target, visible.length - source);
+        return merged;
+    }
+
+    // Primera posición desde from cuya fila va después de row
+    private int upperBound(SensorDataset data, int[] visible, int from, int row, ReadingColumn column,
+                           boolean ascending) {
+        int low = from;
+        int high = visible.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(data, column, ascending, visible[mid], row) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // El mismo orden que sort: por la columna y, a igual valor, por posición en el dataset
+    private int compare(SensorDataset data, ReadingColumn column, boolean ascending, int a, int b) {
+        int comparison = 0;
+        if (column != null) {
+            comparison = switch (column) {
+                case TIMESTAMP -> Long.compare(data.epochSecond(a), data.epochSecond(b));
+                case IRRIGATION -> Boolean.compare(data.irrigationStatus(a), data.irrigationStatus(b));
+                default -> Double.compare(column.getChannel().valueOf(data, a), column.getChannel().valueOf(data, b));
+            };
+        }
+        if (!ascending) {
+            comparison = -comparison;
+        }
+        return comparison != 0 ? comparison : Integer.compare(a, b);
+    }
+
+    private int[] reversed(int size) {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = size - 1 - i;
+        }
+        return order;
+    }
+
+    // Estable: dentro de cada grupo se conserva el orden por timestamp
+    private int[] partition(SensorDataset data, boolean inactiveFirst) {
+        int size = data.size();
+        BitSet irrigated = irrigatedRows(data);
+        int[] order = new int[size];
+        int next = 0;
+        for (boolean pass : new boolean[] {!inactiveFirst, inactiveFirst}) {
+            for (int i = 0; i < size; i++) {
+                if (irrigated.get(i) == pass) {
+                    order[next++] = i;
+                }
+            }
+        }
+        return order;
+    }
+
+    // Clave float ordenable en los 32 bits altos e índice en los bajos, así un solo parallelSort de long[]
+    // ordena de forma estable. Los valores que coinciden como float se reordenan después con el double exacto
+    private int[] sortByChannel(SensorDataset data, SensorChannel channel, boolean ascending) {
+        int size = data.size();
+        double[] values = channelValues(data, channel);
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            int key = sortableKey((float) values[i]);
+            keys[i] = ((long) (ascending ? key : ~key) << 32) | i;
+        }
+        Arrays.parallelSort(keys);
+
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = (int) (keys[i] & INDEX_MASK);
+        }
+        int runStart = 0;
+        for (int i = 1; i <= size; i++) {
+            if (i == size || keys[i] >>> 32 != keys[runStart] >>> 32) {
+                if (i - runStart > 1) {
+                    refineRun(values, order, runStart, i, ascending);
+                }
+                runStart = i;
+            }
+        }
+        return order;
+    }
+
+    // Inserción: los tramos son cortos y, si los valores son iguales, ya están en orden
+    private void refineRun(double[] values, int[] order, int from, int to, boolean ascending) {
+        for (int i = from + 1; i < to; i++) {
+            int row = order[i];
+            double value = values[row];
+            int j = i - 1;
+            while (j >= from && outOfOrder(values[order[j]], value, ascending)) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = row;
+        }
+    }
+
+    private double[] channelValues(SensorDataset data, SensorChannel channel) {
+        double[] values = new double[data.size()];
+        data.forEach(new SensorRowSink() {
+            private int row;
+
+            @Override
+            public void accept(long epochSecond, double soilHumidity, double airTemperature, double airHumidity,
+                               boolean irrigationStatus) {
+                values[row++] = channel.valueOf(soilHumidity, airTemperature, airHumidity);
+            }
+        });
+        return values;
+    }
+
+    private BitSet matchingRows(SensorDataset data, ReadingFilter filter) {
+        BitSet rows = new BitSet(data.size());
+        data.forEach(new SensorRowSink() {
+            private int row;
+
+            @Override
+            public void accept(long epochSecond, double soilHumidity, double airTemperature, double airHumidity,
+                               boolean irrigationStatus) {
+                rows.set(row++, filter.matches(soilHumidity, airTemperature, airHumidity, irrigationStatus));
+            }
+        });
+        return rows;
+    }
+
+    private BitSet irrigatedRows(SensorDataset data) {
+        BitSet rows = new BitSet(data.size());
+        data.forEach(new SensorRowSink() {
+            private int row;
+
+            @Override
+            public void accept(long epochSecond, double soilHumidity, double airTemperature, double airHumidity,
+                               boolean irrigationStatus) {
+                rows.set(row++, irrigationStatus);
+            }
+        });
+        return rows;
+    }
+
+    private boolean outOfOrder(double previous, double value, boolean ascending) {
+        int comparison = Double.compare(previous, value);
+        return ascending ? comparison > 0 : comparison < 0;
+    }
+
+    // Los bits de un float negativo se invierten para que el orden de los int coincida con el de los valores
+    private static int sortableKey(float value) {
+        int bits = Float.floatToIntBits(value);
+        return bits ^ ((bits >> 31) & 0x7FFF_FFFF);
+    }
+}
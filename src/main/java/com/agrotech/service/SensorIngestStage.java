@@ -0,0 +1,79 @@
+package com.agrotech.service;
+
+import com.agrotech.model.EpochSecondSet;
+import com.agrotech.model.SensorRowSink;
+import com.agrotech.model.SensorStore;
+
+// Etapa de ingreso fila por fila: descarta timestamps repetidos (reenvíos tras reconexión) y detecta desorden.
+// Mientras las filas llegan en orden un repetido solo puede ser igual al anterior; recién ante el primer
+// desorden se usa el conjunto de timestamps, y el prefijo ordenado se consulta con búsqueda binaria
+public class SensorIngestStage implements SensorRowSink {
+    private final SensorStore target;
+    private final EpochSecondSet unorderedEpochs;
+    private int orderedPrefix;
+    private long lastEpochSecond;
+    private boolean ordered;
+    private long duplicates;
+
+    // El contenido previo del almacén debe estar ordenado y sin repetidos
+    public SensorIngestStage(SensorStore target) {
+        this.target = target;
+        this.unorderedEpochs = new EpochSecondSet();
+        this.orderedPrefix = target.size();
+        this.lastEpochSecond = target.isEmpty() ? Long.MIN_VALUE : target.epochSecond(target.size() - 1);
+        this.ordered = true;
+    }
+
+    @Override
+    public void accept(long epochSecond, double soilHumidity, double airTemperature,
+                       double airHumidity, boolean irrigationStatus) {
+        if (ordered) {
+            if (orderedPrefix == 0 || epochSecond > lastEpochSecond) {
+                target.accept(epochSecond, soilHumidity, airTemperature, airHumidity, irrigationStatus);
+                lastEpochSecond = epochSecond;
+                orderedPrefix++;
+                return;
+            }
+            if (epochSecond == lastEpochSecond) {
+                duplicates++;
+                return;
+            }
+            ordered = false;
+        }
+
+        if (inOrderedPrefix(epochSecond) || !unorderedEpochs.add(epochSecond)) {
+            duplicates++;
+            return;
+        }
+        target.accept(epochSecond, soilHumidity, airTemperature, airHumidity, irrigationStatus);
+    }
+
+    // true si llegaron filas fuera de orden y el almacén debe reordenarse
+    public boolean needsSort() {
+        return !ordered;
+    }
+
+    // Repetidos descartados desde la consulta anterior; la etapa se reutiliza entre publicaciones
+    public long takeDuplicates() {
+        long taken = duplicates;
+        duplicates = 0;
+        return taken;
+    }
+
+    private boolean inOrderedPrefix(long epochSecond) {
+        int low = 0;
+        int high = orderedPrefix - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long value = target.epochSecond(mid);
+            if (value < epochSecond) {
+                low = mid + 1;
+            } else if (value > epochSecond) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+}
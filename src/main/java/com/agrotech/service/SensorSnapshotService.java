@@ -0,0 +1,328 @@
+package com.agrotech.service;
+
+import com.agrotech.model.CompressedSensorColumns;
+import com.agrotech.model.MappedSensorColumns;
+import com.agrotech.model.SensorBlockCodec;
+import com.agrotech.model.SensorDataset;
+import com.agrotech.model.SensorStore;
+import com.agrotech.model.SourceFingerprint;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+// Guarda el dataset parseado junto al CSV en formato columnar binario, para no volver a parsearlo al reabrirlo.
+//
+// Formato (little-endian):
+//   header  magic, versión, tamaño y fecha de modificación del origen, hash de contenido del origen,
+//           filas, largo de la ruta, checksum del payload, checksum del header; luego la ruta en UTF-8
+//   payload versión 1: epochSeconds[filas], soilHumidity[filas], airTemperature[filas], airHumidity[filas],
+//           bits de riego en palabras de 64 bits; alineado a 8 bytes
+//           versión 2 (comprimido): por bloque, filas y cantidad de palabras (int) y las palabras de
+//           SensorBlockCodec; todos los bloques tienen 1024 filas salvo el último
+public class SensorSnapshotService {
+    private static final String EXTENSION = ".agrosnap";
+    private static final int MAGIC = 0x41475350; // "AGSP"
+    private static final int COLUMNS_VERSION = 1;
+    private static final int COMPRESSED_VERSION = 2;
+    private static final int HEADER_SIZE = 56;
+    private static final int HEADER_CHECKSUM_OFFSET = 48;
+    private static final int WRITE_BUFFER_SIZE = 1024 * 1024;
+    // Muestras del origen para el hash de contenido: detectan cambios que conservan tamaño y fecha
+    private static final int HASH_SAMPLES = 16;
+    private static final int HASH_SAMPLE_SIZE = 64 * 1024;
+    // Cada columna se mapea como un único buffer
+    private static final int MAX_ROWS = Integer.MAX_VALUE / Long.BYTES;
+
+    public Path snapshotPath(File source) {
+        return source.toPath().resolveSibling(source.getName() + EXTENSION);
+    }
+
+    // Se toma antes de parsear: el largo primero, y el hash solo sobre esos bytes
+    public SourceFingerprint fingerprint(File source) throws IOException {
+        long size = source.length();
+        long lastModified = source.lastModified();
+        return new SourceFingerprint(size, lastModified, contentHash(source, size));
+    }
+
+    // Devuelve null si no hay snapshot o si no corresponde al estado actual del archivo; en ese caso se parsea
+    // el CSV. Un snapshot por columnas se mapea; uno comprimido se lee completo al heap
+    public SensorStore load(File source, SourceFingerprint current) {
+        Path snapshot = snapshotPath(source);
+        if (!Files.isRegularFile(snapshot)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(channel, 0, HEADER_SIZE);
+            if (header == null || header.getInt(0) != MAGIC
+                    || (header.getInt(4) != COLUMNS_VERSION && header.getInt(4) != COMPRESSED_VERSION)) {
+                return null;
+            }
+
+            int rows = header.getInt(32);
+            int pathLength = header.getInt(36);
+            // El largo todavía no está validado por el checksum: se acota al archivo antes de reservar el buffer
+            ByteBuffer path = pathLength < 0 || pathLength > channel.size() - HEADER_SIZE
+                    ? null : readFully(channel, HEADER_SIZE, pathLength);
+            if (path == null || rows < 0 || rows > MAX_ROWS || header.getInt(HEADER_CHECKSUM_OFFSET) != headerChecksum(header, path)) {
+                return null;
+            }
+
+            String sourcePath = StandardCharsets.UTF_8.decode(path).toString();
+            if (!sourcePath.equals(source.getAbsolutePath())
+                    || header.getLong(8) != current.size()
+                    || header.getLong(16) != current.lastModified()
+                    || header.getLong(24) != current.contentHash()) {
+                return null;
+            }
+
+            long offset = payloadOffset(pathLength);
+            if (header.getInt(4) == COMPRESSED_VERSION) {
+                return loadCompressed(channel, offset, rows, header.getLong(40), snapshot);
+            }
+            long columnBytes = (long) rows * Long.BYTES;
+            long bitsBytes = (long) words(rows) * Long.BYTES;
+            if (channel.size() != offset + 4 * columnBytes + bitsBytes) {
+                return null;
+            }
+
+            MappedByteBuffer[] columns = new MappedByteBuffer[5];
+            CRC32C checksum = new CRC32C();
+            for (int column = 0; column < columns.length; column++) {
+                long length = column < 4 ? columnBytes : bitsBytes;
+                columns[column] = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                columns[column].order(ByteOrder.LITTLE_ENDIAN);
+                checksum.update(columns[column].duplicate());
+                offset += length;
+            }
+            if (checksum.getValue() != header.getLong(40)) {
+                System.err.println("Snapshot corrupto, se vuelve a parsear: " + snapshot);
+                return null;
+            }
+
+            return new MappedSensorColumns(columns[0].asLongBuffer(), columns[1].asDoubleBuffer(),
+                    columns[2].asDoubleBuffer(), columns[3].asDoubleBuffer(), columns[4].asLongBuffer(), rows);
+        } catch (IOException e) {
+            System.err.println("No se pudo leer el snapshot: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Se escribe en un archivo temporal y se reemplaza al final: un snapshot a medio escribir nunca queda visible.
+    // fingerprint es el estado del origen tomado antes de parsear data
+    public void save(File source, SourceFingerprint fingerprint, SensorDataset data, boolean compressed)
+            throws IOException {
+        int rows = data.size();
+        if (!compressed && rows > MAX_ROWS) {
+            return;
+        }
+
+        Path snapshot = snapshotPath(source);
+        Path temp = Files.createTempFile(snapshot.getParent(), source.getName(), ".tmp");
+        try {
+            byte[] path = source.getAbsolutePath().getBytes(StandardCharsets.UTF_8);
+            long offset = payloadOffset(path.length);
+            CRC32C checksum = new CRC32C();
+
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                channel.position(offset);
+                if (compressed) {
+                    writeBlocks(channel, buffer, checksum, data);
+                } else {
+                    writeColumns(channel, buffer, checksum, data);
+                }
+
+                ByteBuffer header = ByteBuffer.allocate((int) offset).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(0, MAGIC)
+                        .putInt(4, compressed ? COMPRESSED_VERSION : COLUMNS_VERSION)
+                        .putLong(8, fingerprint.size())
+                        .putLong(16, fingerprint.lastModified())
+                        .putLong(24, fingerprint.contentHash())
+                        .putInt(32, rows)
+                        .putInt(36, path.length)
+                        .putLong(40, checksum.getValue())
+                        .put(HEADER_SIZE, path);
+                header.putInt(HEADER_CHECKSUM_OFFSET, headerChecksum(header, ByteBuffer.wrap(path)));
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+            }
+            Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeColumns(FileChannel channel, ByteBuffer buffer, CRC32C checksum, SensorDataset data)
+            throws IOException {
+        int rows = data.size();
+        for (int i = 0; i < rows; i++) {
+            buffer = putLong(channel, buffer, checksum, data.epochSecond(i));
+        }
+        for (int i = 0; i < rows; i++) {
+            buffer = putDouble(channel, buffer, checksum, data.soilHumidity(i));
+        }
+        for (int i = 0; i < rows; i++) {
+            buffer = putDouble(channel, buffer, checksum, data.airTemperature(i));
+        }
+        for (int i = 0; i < rows; i++) {
+            buffer = putDouble(channel, buffer, checksum, data.airHumidity(i));
+        }
+        for (int word = 0; word < words(rows); word++) {
+            long bits = 0;
+            for (int i = word << 6, end = Math.min(rows, i + 64); i < end; i++) {
+                if (data.irrigationStatus(i)) {
+                    bits |= 1L << i;
+                }
+            }
+            buffer = putLong(channel, buffer, checksum, bits);
+        }
+        flush(channel, buffer, checksum);
+    }
+
+    // Los bloques de un almacén comprimido se copian tal cual; cualquier otro dataset se codifica al escribir
+    private static void writeBlocks(FileChannel channel, ByteBuffer buffer, CRC32C checksum, SensorDataset data)
+            throws IOException {
+        CompressedSensorColumns.View view = data instanceof CompressedSensorColumns.View compressed ? compressed : null;
+        int blocks = view != null ? view.blockCount()
+                : (data.size() + SensorBlockCodec.BLOCK_ROWS - 1) / SensorBlockCodec.BLOCK_ROWS;
+        for (int block = 0; block < blocks; block++) {
+            int from = block * SensorBlockCodec.BLOCK_ROWS;
+            int rows = Math.min(SensorBlockCodec.BLOCK_ROWS, data.size() - from);
+            long[] words = view != null ? view.encodedBlock(block) : SensorBlockCodec.encode(data, from, from + rows);
+            if (buffer.remaining() < 2 * Integer.BYTES) {
+                flush(channel, buffer, checksum);
+            }
+            buffer.putInt(rows).putInt(words.length);
+            for (long word : words) {
+                buffer = putLong(channel, buffer, checksum, word);
+            }
+        }
+        flush(channel, buffer, checksum);
+    }
+
+    private static CompressedSensorColumns loadCompressed(FileChannel channel, long offset, int rows,
+                                                          long expectedChecksum, Path snapshot) throws IOException {
+        long payloadSize = channel.size() - offset;
+        if (payloadSize < 0 || payloadSize > Integer.MAX_VALUE) {
+            return null;
+        }
+        ByteBuffer payload = readFully(channel, offset, (int) payloadSize);
+        if (payload == null) {
+            return null;
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(payload.duplicate());
+        if (checksum.getValue() != expectedChecksum) {
+            System.err.println("Snapshot corrupto, se vuelve a parsear: " + snapshot);
+            return null;
+        }
+
+        int blockCount = (rows + SensorBlockCodec.BLOCK_ROWS - 1) / SensorBlockCodec.BLOCK_ROWS;
+        long[][] blocks = new long[blockCount][];
+        int[] blockRows = new int[blockCount];
+        for (int block = 0; block < blockCount; block++) {
+            if (payload.remaining() < 2 * Integer.BYTES) {
+                return null;
+            }
+            int expectedRows = Math.min(SensorBlockCodec.BLOCK_ROWS, rows - block * SensorBlockCodec.BLOCK_ROWS);
+            blockRows[block] = payload.getInt();
+            int words = payload.getInt();
+            if (blockRows[block] != expectedRows || words < 0 || words > payload.remaining() / Long.BYTES) {
+                return null;
+            }
+            blocks[block] = new long[words];
+            payload.asLongBuffer().get(blocks[block]);
+            payload.position(payload.position() + words * Long.BYTES);
+        }
+        return payload.hasRemaining() ? null : CompressedSensorColumns.fromBlocks(blocks, blockRows);
+    }
+
+    // CRC32C de bloques repartidos por los primeros size bytes; los archivos chicos se cubren completos
+    long contentHash(File source, long size) throws IOException {
+        CRC32C hash = new CRC32C();
+        try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer sample = ByteBuffer.allocate(HASH_SAMPLE_SIZE);
+            if (size <= (long) HASH_SAMPLES * HASH_SAMPLE_SIZE) {
+                for (long position = 0; position < size; position += HASH_SAMPLE_SIZE) {
+                    hashSample(channel, sample, position, size, hash);
+                }
+            } else {
+                long step = (size - HASH_SAMPLE_SIZE) / (HASH_SAMPLES - 1);
+                for (int i = 0; i < HASH_SAMPLES; i++) {
+                    hashSample(channel, sample, i * step, size, hash);
+                }
+            }
+        }
+        return hash.getValue();
+    }
+
+    // Los bytes que el archivo tenga más allá de size no entran en el hash
+    private static void hashSample(FileChannel channel, ByteBuffer sample, long position, long size, CRC32C hash)
+            throws IOException {
+        sample.clear().limit((int) Math.min(HASH_SAMPLE_SIZE, size - position));
+        while (sample.hasRemaining() && channel.read(sample, position + sample.position()) > 0) {
+            // se completa la muestra
+        }
+        hash.update(sample.flip());
+    }
+
+    private static int headerChecksum(ByteBuffer header, ByteBuffer path) {
+        CRC32C checksum = new CRC32C();
+        checksum.update(header.duplicate().position(0).limit(HEADER_CHECKSUM_OFFSET));
+        checksum.update(path.duplicate().position(0));
+        return (int) checksum.getValue();
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return null;
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static ByteBuffer putLong(FileChannel channel, ByteBuffer buffer, CRC32C checksum, long value) throws IOException {
+        if (buffer.remaining() < Long.BYTES) {
+            flush(channel, buffer, checksum);
+        }
+        return buffer.putLong(value);
+    }
+
+    private static ByteBuffer putDouble(FileChannel channel, ByteBuffer buffer, CRC32C checksum, double value) throws IOException {
+        if (buffer.remaining() < Double.BYTES) {
+            flush(channel, buffer, checksum);
+        }
+        return buffer.putDouble(value);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer, CRC32C checksum) throws IOException {
+        buffer.flip();
+        checksum.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static long payloadOffset(int pathLength) {
+        return (HEADER_SIZE + pathLength + 7L) & ~7L;
+    }
+
+    private static int words(int rows) {
+        return (rows + 63) >>> 6;
+    }
+}
@@ -0,0 +1,19 @@
+package com.agrotech.service;
+
+import com.agrotech.model.SensorRowSink;
+
+import java.io.IOException;
+
+// Fuente de lecturas en vivo; read() corre en el hilo lector y entrega cada lectura al sink sin cambiar de hilo
+public interface SensorSource extends AutoCloseable {
+    // Bloquea hasta que la fuente se agota o se cierra
+    void read(SensorRowSink sink) throws IOException;
+
+    String getDescription();
+
+    long getRejectedLines();
+
+    // Debe desbloquear un read() en curso
+    @Override
+    void close();
+}
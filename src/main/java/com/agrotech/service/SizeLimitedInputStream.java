@@ -0,0 +1,42 @@
+package com.agrotech.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Aplica el límite de tamaño sobre los bytes descomprimidos, no sobre el archivo en disco
+public class SizeLimitedInputStream extends FilterInputStream {
+    private final long maxBytes;
+    private long bytesRead;
+
+    public SizeLimitedInputStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            count(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            count(read);
+        }
+        return read;
+    }
+
+    private void count(int read) throws IOException {
+        bytesRead += read;
+        if (bytesRead > maxBytes) {
+            throw new IOException(String.format(
+                    "El contenido descomprimido excede el tamaño máximo permitido de %d MB", maxBytes / (1024 * 1024)));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.agrotech.service;
+
+import com.agrotech.model.SensorRowSink;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+// Puerto TCP en localhost que reemplaza al enlace serie: el puente del Arduino (o una prueba) se conecta y
+// escribe líneas. Atiende una conexión a la vez y vuelve a escuchar cuando el cliente se desconecta
+public class SocketSensorSource extends LineSensorSource {
+    private final ServerSocket serverSocket;
+    private volatile Socket client;
+
+    public SocketSensorSource(int port) throws IOException {
+        this.serverSocket = new ServerSocket(port, 1, InetAddress.getLoopbackAddress());
+    }
+
+    @Override
+    public void read(SensorRowSink sink) throws IOException {
+        while (!isClosed()) {
+            try (Socket socket = serverSocket.accept()) {
+                client = socket;
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                readLines(reader, sink);
+            } catch (IOException e) {
+                if (isClosed()) {
+                    return;
+                }
+                // Conexión cortada por el cliente: se espera la siguiente
+            } finally {
+                client = null;
+            }
+        }
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Puerto local " + getPort();
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        try {
+            serverSocket.close();
+            Socket socket = client;
+            if (socket != null) {
+                socket.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Error al cerrar el puerto de sensores: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.agrotech.service;
+
+import com.agrotech.model.SensorColumns;
+import com.agrotech.model.SensorDataset;
+import com.agrotech.model.SensorRowSink;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+// Deja los datasets ordenados por timestamp y sin repetidos, para que las consultas puedan usar búsqueda binaria
+public class TimestampRepairService {
+    // Con el rango de timestamps en 32 bits, timestamp relativo e índice caben juntos en un long
+    private static final int INDEX_BITS = 31;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+    // Una sola pasada si ya está en orden estricto; solo se ordena cuando hay desorden
+    public SensorColumns repair(SensorColumns columns) {
+        int[] order = sortedUniqueOrder(columns);
+        if (order == null) {
+            return columns;
+        }
+        SensorColumns repaired = new SensorColumns(order.length);
+        copyRows(columns, order, repaired);
+        return repaired;
+    }
+
+    public boolean isStrictlyIncreasing(SensorDataset data) {
+        for (int i = 1; i < data.size(); i++) {
+            if (data.epochSecond(i) <= data.epochSecond(i - 1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Orden de filas por timestamp conservando la primera aparición de cada uno; null si no hace falta reordenar
+    public int[] sortedUniqueOrder(SensorDataset data) {
+        if (isStrictlyIncreasing(data)) {
+            return null;
+        }
+
+        int[] order = sortedOrder(data);
+        int unique = 0;
+        for (int i = 0; i < order.length; i++) {
+            if (unique == 0 || data.epochSecond(order[i]) != data.epochSecond(order[unique - 1])) {
+                order[unique++] = order[i];
+            }
+        }
+        return unique == order.length ? order : Arrays.copyOf(order, unique);
+    }
+
+    public void copyRows(SensorDataset source, int[] order, SensorRowSink target) {
+        for (int row : order) {
+            target.accept(source.epochSecond(row), source.soilHumidity(row), source.airTemperature(row),
+                    source.airHumidity(row), source.irrigationStatus(row));
+        }
+    }
+
+    // Orden estable: a igual timestamp decide el índice original
+    private int[] sortedOrder(SensorDataset data) {
+        int size = data.size();
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, data.epochSecond(i));
+            max = Math.max(max, data.epochSecond(i));
+        }
+
+        int[] order = new int[size];
+        if (max - min >= 0 && max - min < (1L << 32)) {
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = ((data.epochSecond(i) - min) << INDEX_BITS) | i;
+            }
+            Arrays.parallelSort(keys);
+            for (int i = 0; i < size; i++) {
+                order[i] = (int) (keys[i] & INDEX_MASK);
+            }
+            return order;
+        }
+
+        // Rango de más de 136 años: caso anómalo, se ordena con comparador
+        Integer[] boxed = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            boxed[i] = i;
+        }
+        Arrays.sort(boxed, Comparator.comparingLong(data::epochSecond));
+        for (int i = 0; i < size; i++) {
+            order[i] = boxed[i];
+        }
+        return order;
+    }
+}